@@ -1,15 +1,16 @@
 package lib;
 
 import java.security.PublicKey;
+import java.util.Arrays;
 
 import utils.StringUtil;
 
 /**
- * Represents an output for a transaction.
+ * Represents an output for a transaction, locked to the recipient's 20-byte address.
  */
 public class TransOutput {
     private String ID;
-    private PublicKey recipient;
+    private byte[] address;
     private float value;
     private String parentTransactionID;
 
@@ -20,7 +21,17 @@ public class TransOutput {
      * @param parentTransactionID the ID of the parent transaction.
      */
     public TransOutput(PublicKey recipient, float value, String parentTransactionID) {
-        this.recipient = recipient;
+        this(StringUtil.getAddress(recipient), value, parentTransactionID);
+    }
+
+    /**
+     * Constructs a new transaction output locked to an address.
+     * @param address             the address of the recipient.
+     * @param value               the value of the output.
+     * @param parentTransactionID the ID of the parent transaction.
+     */
+    public TransOutput(byte[] address, float value, String parentTransactionID) {
+        this.address = address;
         this.value = value;
         this.parentTransactionID = parentTransactionID;
         this.ID = generateID();
@@ -32,7 +43,7 @@ public class TransOutput {
      */
     private String generateID() {
         return StringUtil.applySha256(
-                StringUtil.getStringFromKey(recipient) +
+                StringUtil.toHex(address) +
                         Float.toString(value) +
                         parentTransactionID
         );
@@ -44,7 +55,16 @@ public class TransOutput {
      * @return true if the output belongs to the public key, false otherwise.
      */
     public boolean isMine(PublicKey publicKey) {
-        return publicKey.equals(recipient);
+        return isMine(StringUtil.getAddress(publicKey));
+    }
+
+    /**
+     * Checks if the output is locked to the specified address.
+     * @param address the address to check.
+     * @return true if the output belongs to the address, false otherwise.
+     */
+    public boolean isMine(byte[] address) {
+        return Arrays.equals(this.address, address);
     }
 
     /**
@@ -56,19 +76,19 @@ public class TransOutput {
     }
 
     /**
-     * Gets the recipient's public key.
-     * @return the recipient's public key.
+     * Gets the recipient's address.
+     * @return the recipient's address.
      */
-    public PublicKey getRecipient() {
-        return recipient;
+    public byte[] getAddress() {
+        return address;
     }
 
     /**
-     * Sets the recipient's public key and updates the output ID.
-     * @param recipient the new recipient's public key.
+     * Sets the recipient's address and updates the output ID.
+     * @param address the new recipient's address.
      */
-    public void setRecipient(PublicKey recipient) {
-        this.recipient = recipient;
+    public void setAddress(byte[] address) {
+        this.address = address;
         this.ID = generateID();
     }
 
@@ -4,6 +4,7 @@ import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import src.AevumChain;
 import utils.StringUtil;
@@ -16,9 +17,12 @@ public class Transaction {
 
     private String transactionID;
     private PublicKey sender;
-    private PublicKey recipient;
+    private byte[] recipient;
     private float value;
     private byte[] signature;
+    private boolean coinbase;
+    private int height;
+    private long extraNonce;
 
     private List<TransInput> inputs;
     private List<TransOutput> outputs;
@@ -26,11 +30,11 @@ public class Transaction {
     /**
      * Constructs a new transaction.
      * @param from   the sender's public key.
-     * @param to     the recipient's public key.
+     * @param to     the recipient's address.
      * @param value  the value to be sent.
      * @param inputs the list of inputs for this transaction.
      */
-    public Transaction(PublicKey from, PublicKey to, float value, List<TransInput> inputs) {
+    public Transaction(PublicKey from, byte[] to, float value, List<TransInput> inputs) {
         this.sender = from;
         this.recipient = to;
         this.value = value;
@@ -45,20 +49,82 @@ public class Transaction {
     private String calculateHash() {
         sequence++;
         return StringUtil.applySha256(
-            StringUtil.getStringFromKey(sender) +
-            StringUtil.getStringFromKey(recipient) +
+            StringUtil.getAddressString(sender) +
+            StringUtil.toHex(recipient) +
             Float.toString(value) +
             sequence
         );
     }
 
+    /**
+     * Calculates the hash of a coinbase transaction from its block height and extra-nonce.
+     * @return the calculated hash.
+     */
+    private String calculateCoinbaseHash() {
+        return StringUtil.applySha256(
+            StringUtil.getAddressString(sender) +
+            StringUtil.toHex(recipient) +
+            Float.toString(value) +
+            height + ":" + extraNonce
+        );
+    }
+
+    /**
+     * Marks the transaction as the coinbase of the block at the given height,
+     * creating its single reward output.
+     * @param height the height of the block the coinbase rewards.
+     */
+    public void setCoinbase(int height) {
+        this.coinbase = true;
+        this.height = height;
+        setExtraNonce(0);
+    }
+
+    /**
+     * Sets the extra-nonce of a coinbase transaction, changing its ID and reward output.
+     * @param extraNonce the new extra-nonce.
+     */
+    public void setExtraNonce(long extraNonce) {
+        if (!coinbase) {
+            throw new IllegalStateException("Only a coinbase transaction has an extra-nonce");
+        }
+        this.extraNonce = extraNonce;
+        this.transactionID = calculateCoinbaseHash();
+        outputs.clear();
+        outputs.add(new TransOutput(recipient, value, transactionID));
+    }
+
+    /**
+     * Checks if the transaction is a coinbase transaction.
+     * @return true if the transaction is a coinbase, false otherwise.
+     */
+    public boolean isCoinbase() {
+        return this.coinbase;
+    }
+
+    /**
+     * Gets the height of the block a coinbase transaction rewards.
+     * @return the block height.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Gets the extra-nonce of a coinbase transaction.
+     * @return the extra-nonce.
+     */
+    public long getExtraNonce() {
+        return this.extraNonce;
+    }
+
     /**
      * Generates a signature for the transaction using the private key.
      * @param privateKey the private key to sign the transaction.
      */
     public void generateSignature(PrivateKey privateKey) {
-        String data = StringUtil.getStringFromKey(sender) + 
-                      StringUtil.getStringFromKey(recipient) + 
+        String data = StringUtil.getAddressString(sender) + 
+                      StringUtil.toHex(recipient) + 
                       Float.toString(value);
         this.signature = StringUtil.applyECDSASig(privateKey, data);
     }
@@ -68,8 +134,8 @@ public class Transaction {
      * @return true if the signature is valid, false otherwise.
      */
     public boolean verifySignature() {
-        String data = StringUtil.getStringFromKey(sender) + 
-                      StringUtil.getStringFromKey(recipient) + 
+        String data = StringUtil.getAddressString(sender) + 
+                      StringUtil.toHex(recipient) + 
                       Float.toString(value);
         return StringUtil.verifyECDSASig(sender, data, signature);
     }
@@ -77,15 +143,33 @@ public class Transaction {
     /**
      * Processes the transaction by verifying the signature, checking the transaction value,
      * updating the UTXOs, and adding outputs.
+     * @param UTXOs the unspent outputs the transaction spends from.
      * @return true if the transaction is processed successfully, false otherwise.
      */
-    public boolean processTransaction() {
+    public boolean processTransaction(Map<String, TransOutput> UTXOs) {
         if (!verifySignature()) {
             System.out.println("#Transaction Signature failed to verify");
             return false;
         }
+        return applyTransaction(UTXOs);
+    }
 
-        gatherTransactionInputs();
+    /**
+     * Applies an already verified transaction by checking the transaction value,
+     * updating the UTXOs, and adding outputs.
+     * @param UTXOs the unspent outputs the transaction spends from.
+     * @return true if the transaction is applied successfully, false otherwise.
+     */
+    public boolean applyTransaction(Map<String, TransOutput> UTXOs) {
+        gatherTransactionInputs(UTXOs);
+
+        byte[] senderAddress = StringUtil.getAddress(sender);
+        for (TransInput input : inputs) {
+            if (input.getUTXO() != null && !input.getUTXO().isMine(senderAddress)) {
+                System.out.println("#Referenced input is not owned by the sender");
+                return false;
+            }
+        }
 
         if (transactionID == null && getInputsValue() < AevumChain.MIN_TRANSACTION) {
             System.out.println("#Transaction Inputs too small: " + getInputsValue());
@@ -97,33 +181,55 @@ public class Transaction {
             transactionID = calculateHash();
         }
         outputs.add(new TransOutput(recipient, value, transactionID));
-        outputs.add(new TransOutput(sender, leftOver, transactionID));
+        if (leftOver != 0) {
+            outputs.add(new TransOutput(sender, leftOver, transactionID));
+        }
 
-        updateUTXOs();
+        updateUTXOs(UTXOs);
 
         return true;
     }
 
+    /**
+     * Reverts an applied transaction by removing its outputs from the UTXOs
+     * and restoring the outputs it spent.
+     * @param UTXOs the unspent outputs the transaction was applied to.
+     */
+    public void revertTransaction(Map<String, TransOutput> UTXOs) {
+        for (TransOutput output : outputs) {
+            UTXOs.remove(output.getID());
+        }
+        outputs.clear();
+
+        for (TransInput input : inputs) {
+            if (input.getUTXO() != null) {
+                UTXOs.put(input.getUTXO().getID(), input.getUTXO());
+            }
+        }
+    }
+
     /**
      * Gathers the transaction inputs from the UTXOs.
+     * @param UTXOs the unspent outputs to look the inputs up in.
      */
-    private void gatherTransactionInputs() {
+    private void gatherTransactionInputs(Map<String, TransOutput> UTXOs) {
         for (TransInput input : inputs) {
-            input.setUTXO(AevumChain.UTXOs.get(input.getTransOutputID()));
+            input.setUTXO(UTXOs.get(input.getTransOutputID()));
         }
     }
 
     /**
      * Updates the Unspent Transaction Outputs (UTXOs) after processing the transaction.
+     * @param UTXOs the unspent outputs to update.
      */
-    private void updateUTXOs() {
+    private void updateUTXOs(Map<String, TransOutput> UTXOs) {
         for (TransOutput output : outputs) {
-            AevumChain.UTXOs.put(output.getID(), output);
+            UTXOs.put(output.getID(), output);
         }
 
         for (TransInput input : inputs) {
             if (input.getUTXO() != null) {
-                AevumChain.UTXOs.remove(input.getUTXO().getID());
+                UTXOs.remove(input.getUTXO().getID());
             }
         }
     }
@@ -163,10 +269,10 @@ public class Transaction {
     }
 
     /**
-     * Gets the recipient's public key.
-     * @return the recipient's public key.
+     * Gets the recipient's address.
+     * @return the recipient's address bytes.
      */
-    public PublicKey getRecipient() {
+    public byte[] getRecipient() {
         return this.recipient;
     }
 
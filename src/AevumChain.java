@@ -4,6 +4,7 @@ import java.security.Security;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import lib.Transaction;
 import lib.TransInput;
@@ -14,13 +15,41 @@ import lib.TransOutput;
  */
 public class AevumChain {
 
-    public static List<Block> blockchain = new ArrayList<>();
-    public static HashMap<String, TransOutput> UTXOs = new HashMap<>();
     public static final int DIFFICULTY = 3;
     public static final float MIN_TRANSACTION = 0.1f;
     public static final float MINER_REWARD = 50f;
-    public static Transaction genesisTransaction;
-    public static Wallet coinbase;
+    private static final int EVENT_CAPACITY = 4096;
+
+    private final List<Block> blockchain = new ArrayList<>();
+    private final IndexedUTXOMap UTXOs = new IndexedUTXOMap();
+    private Transaction genesisTransaction;
+    private Wallet coinbase;
+    private final int pruneDepth;
+    private int baseHeight;
+    private int prunedHeight;
+    private String assumeValidHash;
+    private int verifiedSignatures;
+    private int skippedSignatures;
+    private long verifyNanos;
+    private final EventBus events = new EventBus(EVENT_CAPACITY);
+
+    /**
+     * Constructs a new, empty blockchain with its own coinbase wallet that keeps every block in full.
+     */
+    public AevumChain() {
+        this(0);
+    }
+
+    /**
+     * Constructs a new, empty blockchain with its own coinbase wallet.
+     * @param pruneDepth the number of most recent blocks kept in full, or 0 to never prune.
+     */
+    public AevumChain(int pruneDepth) {
+        if (pruneDepth < 0) {
+            throw new IllegalArgumentException("Prune depth must not be negative: " + pruneDepth);
+        }
+        this.pruneDepth = pruneDepth;
+    }
 
     /**
      * Main method to run the blockchain simulation.
@@ -29,36 +58,36 @@ public class AevumChain {
     public static void main(String[] args) {
         Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
 
-        Wallet walletA = new Wallet();
-        Wallet walletB = new Wallet();
-        coinbase = new Wallet();
+        AevumChain chain = new AevumChain();
+        Wallet walletA = new Wallet(chain);
+        Wallet walletB = new Wallet(chain);
 
         System.out.println("Creating and Mining Genesis block...");
         Block genesis = new Block("0");
-        genesisTransaction = mintBlock(genesis, walletA);
+        chain.mintBlock(genesis, walletA);
 
-        Block block1 = new Block(blockchain.get(blockchain.size() - 1).getHash());
+        Block block1 = new Block(chain.getTip().getHash());
         System.out.println("\nWalletA is Attempting to send funds (40) to WalletB...");
-        block1.addTransaction(walletA.sendFunds(walletB.getPublicKey(), 40f));
-        mintBlock(block1, walletA);
+        block1.addTransaction(walletA.sendFunds(walletB.getAddress(), 40f), chain.getUTXOs());
+        chain.mintBlock(block1, walletA);
         System.out.println("WalletA's balance is: " + walletA.getBalance());
         System.out.println("WalletB's balance is: " + walletB.getBalance());
 
-        Block block2 = new Block(blockchain.get(blockchain.size() - 1).getHash());
+        Block block2 = new Block(chain.getTip().getHash());
         System.out.println("\nWalletA Attempting to send more funds (1000) than it has...");
-        block2.addTransaction(walletA.sendFunds(walletB.getPublicKey(), 1000f));
-        mintBlock(block2, walletA);
+        block2.addTransaction(walletA.sendFunds(walletB.getAddress(), 1000f), chain.getUTXOs());
+        chain.mintBlock(block2, walletA);
         System.out.println("WalletA's balance is: " + walletA.getBalance());
         System.out.println("WalletB's balance is: " + walletB.getBalance());
 
-        Block block3 = new Block(blockchain.get(blockchain.size() - 1).getHash());
+        Block block3 = new Block(chain.getTip().getHash());
         System.out.println("\nWalletB is Attempting to send funds (20) to WalletA...");
-        block3.addTransaction(walletB.sendFunds(walletA.getPublicKey(), 20f));
-        mintBlock(block3, walletB);
+        block3.addTransaction(walletB.sendFunds(walletA.getAddress(), 20f), chain.getUTXOs());
+        chain.mintBlock(block3, walletB);
         System.out.println("WalletA's balance is: " + walletA.getBalance());
         System.out.println("WalletB's balance is: " + walletB.getBalance());
 
-        System.out.println("\n[+] Blockchain validity: " + isChainValid());
+        System.out.println("\n[+] Blockchain validity: " + chain.isChainValid());
     }
 
     /**
@@ -67,41 +96,425 @@ public class AevumChain {
      * @param minerWallet  the wallet of the miner.
      * @return the coinbase transaction.
      */
-    public static Transaction mintBlock(Block newBlock, Wallet minerWallet) {
-        Transaction coinbaseTx = new Transaction(coinbase.getPublicKey(), minerWallet.getPublicKey(), MINER_REWARD, null);
-        coinbaseTx.generateSignature(coinbase.getPrivateKey());
-        coinbaseTx.setTransactionID("0");
-        TransOutput output = new TransOutput(coinbaseTx.getRecipient(), coinbaseTx.getValue(), coinbaseTx.getTransactionID());
-        coinbaseTx.getOutputs().add(output);
-        UTXOs.put(output.getID(), output);
-
+    public Transaction mintBlock(Block newBlock, Wallet minerWallet) {
+        newBlock.getTransactions().add(0, createCoinbaseTransaction(minerWallet));
         newBlock.mineBlock(DIFFICULTY);
-        blockchain.add(newBlock);
-        newBlock.addTransaction(coinbaseTx);
+        return appendBlock(newBlock);
+    }
+
+    /**
+     * Creates the coinbase transaction rewarding the miner of the next block.
+     * It goes first in the block so its extra-nonce is covered by the Merkle root.
+     * @param minerWallet the wallet of the miner.
+     * @return the coinbase transaction.
+     */
+    public Transaction createCoinbaseTransaction(Wallet minerWallet) {
+        Wallet coinbaseWallet = getCoinbase();
+        Transaction coinbaseTx = new Transaction(coinbaseWallet.getPublicKey(), minerWallet.getAddress(), MINER_REWARD, null);
+        coinbaseTx.generateSignature(coinbaseWallet.getPrivateKey());
+        coinbaseTx.setCoinbase(getHeight(blockchain.size()));
+        return coinbaseTx;
+    }
+
+    /**
+     * Appends an already mined block to the blockchain and pays out its coinbase.
+     * The first block appended becomes the genesis block. The block's other transactions
+     * are expected to have been applied to the UTXOs as they were added to it.
+     * @param minedBlock the mined block to be added.
+     * @return the coinbase transaction, or null if the block has none.
+     */
+    public Transaction appendBlock(Block minedBlock) {
+        Transaction coinbaseTx = minedBlock.getCoinbase();
+        if (coinbaseTx != null) {
+            for (TransOutput output : coinbaseTx.getOutputs()) {
+                UTXOs.put(output.getID(), output);
+            }
+        }
+
+        if (blockchain.isEmpty()) {
+            genesisTransaction = coinbaseTx;
+        }
+        publishBlockEvents(minedBlock, getHeight(blockchain.size()));
+        blockchain.add(minedBlock);
+        pruneBlocks();
         return coinbaseTx;
     }
 
     /**
-     * Checks if the blockchain is valid.
+     * Accepts a block mined elsewhere on top of the current tip, applying its
+     * transactions to the UTXOs only if the block is fully valid.
+     * @param block the block to accept.
+     * @return true if the block was accepted, false otherwise.
+     */
+    public boolean acceptBlock(Block block) {
+        String hashTarget = new String(new char[DIFFICULTY]).replace('\0', '0');
+        if (!isCurrentHashValid(block)) return false;
+        if (!isPreviousHashValid(block, getTip())) return false;
+        if (!isBlockMined(block, hashTarget)) return false;
+
+        UTXOOverlay tempUTXOs = new UTXOOverlay(UTXOs);
+        if (!areTransactionsValid(block, getHeight(blockchain.size()), tempUTXOs, true, new SignatureStats())) return false;
+
+        applyBlock(block, UTXOs);
+        publishBlockEvents(block, getHeight(blockchain.size()));
+        blockchain.add(block);
+        pruneBlocks();
+        return true;
+    }
+
+    /**
+     * Disconnects the tip block, removing the outputs it created from the UTXOs
+     * and restoring the outputs it spent.
+     * @return true if the tip was disconnected, false if it is the base block or its spent outputs are unknown.
+     */
+    public boolean disconnectTip() {
+        int index = blockchain.size() - 1;
+        if (index <= 0 || index <= prunedHeight) return false;
+        Block tip = blockchain.get(index);
+        List<Transaction> transactions = tip.getTransactions();
+        for (Transaction transaction : transactions) {
+            for (TransInput input : transaction.getInputs()) {
+                if (!transaction.isCoinbase() && input.getUTXO() == null) {
+                    System.out.println("#Block spends outputs that cannot be restored");
+                    return false;
+                }
+            }
+        }
+
+        int height = getHeight(index);
+        for (int i = transactions.size() - 1; i >= 0; i--) {
+            Transaction transaction = transactions.get(i);
+            for (TransOutput output : transaction.getOutputs()) {
+                UTXOs.remove(output.getID());
+                events.publish(ChainEvent.Type.UTXO_SPENT, height, tip.getHash(), transaction.getTransactionID(), output);
+            }
+            if (!transaction.isCoinbase()) {
+                for (TransInput input : transaction.getInputs()) {
+                    UTXOs.put(input.getUTXO().getID(), input.getUTXO());
+                    events.publish(ChainEvent.Type.UTXO_CREATED, height, tip.getHash(), input.getUTXO().getParentTransactionID(), input.getUTXO());
+                }
+            }
+        }
+        blockchain.remove(index);
+        events.publish(ChainEvent.Type.BLOCK_DISCONNECTED, height, tip.getHash(), null, null);
+        return true;
+    }
+
+    /**
+     * Subscribes to chain events, first replaying the blocks from the given height onwards.
+     * Replayed blocks carry the same events as when they were connected, without sequence numbers.
+     * The chain must not change while subscribing.
+     * @param fromHeight the height of the first block to replay, or a height above the tip to only receive new events.
+     * @return the subscription.
+     */
+    public EventSubscription subscribeEvents(int fromHeight) {
+        List<ChainEvent> replay = new ArrayList<>();
+        for (int i = Math.max(fromHeight - baseHeight, 0); i < blockchain.size(); i++) {
+            Block block = blockchain.get(i);
+            if (block.isPruned()) {
+                throw new IllegalArgumentException("Block is pruned: " + getHeight(i));
+            }
+            replay.addAll(getBlockEvents(block, getHeight(i)));
+        }
+        return events.subscribe(replay);
+    }
+
+    /**
+     * Publishes the events of connecting a block.
+     * @param block  the block being connected.
+     * @param height the height of the block.
+     */
+    private void publishBlockEvents(Block block, int height) {
+        for (ChainEvent event : getBlockEvents(block, height)) {
+            events.publish(event.getType(), event.getHeight(), event.getBlockHash(), event.getTransactionID(), event.getOutput());
+        }
+    }
+
+    /**
+     * Lists the events of connecting a block: the outputs each transaction spends and creates,
+     * the transaction itself, and finally the block.
+     * @param block  the block.
+     * @param height the height of the block.
+     * @return the block's events, without sequence numbers.
+     */
+    private static List<ChainEvent> getBlockEvents(Block block, int height) {
+        List<ChainEvent> blockEvents = new ArrayList<>();
+        for (Transaction transaction : block.getTransactions()) {
+            String transactionID = transaction.getTransactionID();
+            if (!transaction.isCoinbase()) {
+                for (TransInput input : transaction.getInputs()) {
+                    if (input.getUTXO() != null) {
+                        blockEvents.add(new ChainEvent(ChainEvent.Type.UTXO_SPENT, -1, height, block.getHash(), transactionID, input.getUTXO()));
+                    }
+                }
+            }
+            for (TransOutput output : transaction.getOutputs()) {
+                blockEvents.add(new ChainEvent(ChainEvent.Type.UTXO_CREATED, -1, height, block.getHash(), transactionID, output));
+            }
+            if (!transaction.isCoinbase()) {
+                blockEvents.add(new ChainEvent(ChainEvent.Type.TRANSACTION_ACCEPTED, -1, height, block.getHash(), transactionID, null));
+            }
+        }
+        blockEvents.add(new ChainEvent(ChainEvent.Type.BLOCK_CONNECTED, -1, height, block.getHash(), null, null));
+        return blockEvents;
+    }
+
+    /**
+     * Checks if the blockchain is valid. Pruned blocks only get their hash, linkage and
+     * proof of work checked; transactions are fully validated for the retained blocks.
+     * Signatures are not verified for the assume-valid block and its ancestors.
      * @return true if the blockchain is valid, false otherwise.
      */
-    public static boolean isChainValid() {
-        HashMap<String, TransOutput> tempUTXOs = new HashMap<>();
+    public boolean isChainValid() {
+        UTXOOverlay tempUTXOs = new UTXOOverlay(getBaseUTXOs());
         String hashTarget = new String(new char[DIFFICULTY]).replace('\0', '0');
-        tempUTXOs.put(genesisTransaction.getOutputs().get(0).getID(), genesisTransaction.getOutputs().get(0));
+        int assumeValidHeight = getAssumeValidHeight();
+        SignatureStats stats = new SignatureStats();
+        try {
+            for (int i = 1; i < blockchain.size(); i++) {
+                Block currentBlock = blockchain.get(i);
+                Block previousBlock = blockchain.get(i - 1);
 
-        for (int i = 1; i < blockchain.size(); i++) {
-            Block currentBlock = blockchain.get(i);
-            Block previousBlock = blockchain.get(i - 1);
+                if (!isCurrentHashValid(currentBlock)) return false;
+                if (!isPreviousHashValid(currentBlock, previousBlock)) return false;
+                if (!isBlockMined(currentBlock, hashTarget)) return false;
+                if (i > prunedHeight && !areTransactionsValid(currentBlock, getHeight(i), tempUTXOs, i > assumeValidHeight, stats)) return false;
+            }
+        } finally {
+            verifiedSignatures = stats.verified;
+            skippedSignatures = stats.skipped;
+            verifyNanos = stats.nanos;
+        }
 
-            if (!isCurrentHashValid(currentBlock)) return false;
-            if (!isPreviousHashValid(currentBlock, previousBlock)) return false;
-            if (!isBlockMined(currentBlock, hashTarget)) return false;
-            if (!areTransactionsValid(currentBlock, tempUTXOs)) return false;
+        if (skippedSignatures > 0) {
+            System.out.println("[+] Assume-valid skipped " + skippedSignatures + " signature checks, saving ~"
+                    + getAssumeValidSavingsMillis() + " ms");
         }
         return true;
     }
 
+    /**
+     * Sets the assume-valid checkpoint. The block with this hash and its ancestors
+     * skip signature verification during chain validation.
+     * @param blockHash the hash of the trusted block, or null to verify every signature.
+     */
+    public void setAssumeValid(String blockHash) {
+        this.assumeValidHash = blockHash;
+    }
+
+    /**
+     * Estimates the time the assume-valid checkpoint saved during the last chain validation,
+     * based on the average time of the signatures that were verified.
+     * @return the estimated milliseconds saved, or 0 if no signature was verified to time.
+     */
+    public long getAssumeValidSavingsMillis() {
+        if (verifiedSignatures == 0) return 0;
+        return verifyNanos / verifiedSignatures * skippedSignatures / 1_000_000;
+    }
+
+    /**
+     * Gets the number of signature checks skipped during the last chain validation.
+     * @return the number of skipped signature checks.
+     */
+    public int getSkippedSignatures() {
+        return skippedSignatures;
+    }
+
+    /**
+     * Finds the height of the assume-valid block in this chain.
+     * @return the height of the checkpoint, or 0 if it is unset or not part of the chain.
+     */
+    private int getAssumeValidHeight() {
+        if (assumeValidHash == null) return 0;
+        for (int i = blockchain.size() - 1; i > 0; i--) {
+            if (assumeValidHash.equals(blockchain.get(i).getHash())) return i;
+        }
+        return 0;
+    }
+
+    /**
+     * Prunes blocks that fell out of the retention window, folding their
+     * transactions into the base the retained window is validated from.
+     * The base is kept as a journal of the outputs changed since it rather
+     * than as a second copy of the UTXOs. The genesis block is never pruned.
+     */
+    private void pruneBlocks() {
+        if (pruneDepth == 0) return;
+        if (!UTXOs.isJournaling()) {
+            UTXOs.startJournal();
+        }
+        while (prunedHeight + 1 < blockchain.size() - pruneDepth) {
+            Block block = blockchain.get(++prunedHeight);
+            Map<String, TransOutput> baseChanges = new HashMap<>();
+            for (Transaction transaction : block.getTransactions()) {
+                if (!transaction.isCoinbase()) {
+                    for (TransInput input : transaction.getInputs()) {
+                        baseChanges.put(input.getTransOutputID(), null);
+                    }
+                }
+                for (TransOutput output : transaction.getOutputs()) {
+                    baseChanges.put(output.getID(), output);
+                }
+            }
+            for (Map.Entry<String, TransOutput> change : baseChanges.entrySet()) {
+                UTXOs.rebase(change.getKey(), change.getValue());
+            }
+            block.prune();
+        }
+    }
+
+    /**
+     * Applies a block's transactions to a set of unspent outputs, removing spent outputs
+     * and adding created ones. The block is assumed to be valid.
+     * @param block the block to apply.
+     * @param UTXOs the unspent outputs to update.
+     */
+    public static void applyBlock(Block block, Map<String, TransOutput> UTXOs) {
+        for (Transaction transaction : block.getTransactions()) {
+            if (!transaction.isCoinbase()) {
+                for (TransInput input : transaction.getInputs()) {
+                    UTXOs.remove(input.getTransOutputID());
+                }
+            }
+            for (TransOutput output : transaction.getOutputs()) {
+                UTXOs.put(output.getID(), output);
+            }
+        }
+    }
+
+    /**
+     * Gets a read-only view of the unspent outputs as of the deepest pruned block,
+     * or as of the genesis block if nothing has been pruned.
+     * @return the base UTXOs.
+     */
+    private Map<String, TransOutput> getBaseUTXOs() {
+        if (UTXOs.isJournaling()) {
+            return UTXOs.getBase();
+        }
+        HashMap<String, TransOutput> baseUTXOs = new HashMap<>();
+        baseUTXOs.put(genesisTransaction.getOutputs().get(0).getID(), genesisTransaction.getOutputs().get(0));
+        return baseUTXOs;
+    }
+
+    /**
+     * Rebuilds the unspent outputs as they were right after the given block was connected,
+     * ignoring transactions not yet included in a block.
+     * @param blockHash the hash of the block.
+     * @return the UTXOs at that block.
+     */
+    public HashMap<String, TransOutput> getUTXOsAt(String blockHash) {
+        int index = indexOf(blockHash);
+        if (index < 0) {
+            throw new IllegalArgumentException("Block is not part of the chain: " + blockHash);
+        }
+        if (index < prunedHeight) {
+            throw new IllegalArgumentException("Block is pruned: " + blockHash);
+        }
+        UTXOOverlay tempUTXOs = new UTXOOverlay(getBaseUTXOs());
+        for (int i = prunedHeight + 1; i <= index; i++) {
+            applyBlock(blockchain.get(i), tempUTXOs);
+        }
+        return new HashMap<>(tempUTXOs);
+    }
+
+    /**
+     * Bootstraps an empty blockchain from a UTXO snapshot. The snapshot block becomes the
+     * base of the chain in place of the genesis block and new blocks are validated from its UTXOs.
+     * @param baseBlock  the header of the block the snapshot was taken at.
+     * @param baseHeight the height of that block.
+     * @param snapshotUTXOs the unspent outputs right after that block.
+     */
+    public void loadSnapshot(Block baseBlock, int baseHeight, Map<String, TransOutput> snapshotUTXOs) {
+        if (!blockchain.isEmpty()) {
+            throw new IllegalStateException("Snapshots can only be loaded into an empty blockchain");
+        }
+        this.baseHeight = baseHeight;
+        this.blockchain.add(baseBlock);
+        this.UTXOs.putAll(snapshotUTXOs);
+        this.UTXOs.startJournal();
+    }
+
+    /**
+     * Finds the position of a block in the blockchain.
+     * @param blockHash the hash of the block.
+     * @return the index of the block, or -1 if it is not part of the chain.
+     */
+    public int indexOf(String blockHash) {
+        for (int i = blockchain.size() - 1; i >= 0; i--) {
+            if (blockchain.get(i).getHash().equals(blockHash)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the height of the block at the given index of the blockchain.
+     * Heights differ from indexes for blockchains bootstrapped from a snapshot.
+     * @param index the index of the block.
+     * @return the block height.
+     */
+    public int getHeight(int index) {
+        return baseHeight + index;
+    }
+
+    /**
+     * Gets the index of the deepest pruned block.
+     * @return the pruned index, or 0 if no block has been pruned.
+     */
+    public int getPrunedHeight() {
+        return prunedHeight;
+    }
+
+    /**
+     * Gets the blocks of the blockchain.
+     * @return the list of blocks.
+     */
+    public List<Block> getBlockchain() {
+        return blockchain;
+    }
+
+    /**
+     * Gets the latest block of the blockchain.
+     * @return the tip block, or null if the blockchain is empty.
+     */
+    public Block getTip() {
+        return blockchain.isEmpty() ? null : blockchain.get(blockchain.size() - 1);
+    }
+
+    /**
+     * Gets the Unspent Transaction Outputs (UTXOs) of the blockchain.
+     * @return the map of UTXOs.
+     */
+    public IndexedUTXOMap getUTXOs() {
+        return UTXOs;
+    }
+
+    /**
+     * Gets the bus that chain and UTXO changes are published to.
+     * @return the event bus.
+     */
+    public EventBus getEvents() {
+        return events;
+    }
+
+    /**
+     * Gets the coinbase transaction of the genesis block.
+     * @return the genesis transaction.
+     */
+    public Transaction getGenesisTransaction() {
+        return genesisTransaction;
+    }
+
+    /**
+     * Gets the wallet that signs coinbase transactions, creating it on first use.
+     * @return the coinbase wallet.
+     */
+    public synchronized Wallet getCoinbase() {
+        if (coinbase == null) {
+            coinbase = new Wallet(this);
+        }
+        return coinbase;
+    }
+
     private static boolean isCurrentHashValid(Block currentBlock) {
         if (!currentBlock.getHash().equals(currentBlock.calculateHash())) {
             System.out.println("#Current Hashes not equal");
@@ -126,13 +539,23 @@ public class AevumChain {
         return true;
     }
 
-    private static boolean areTransactionsValid(Block currentBlock, HashMap<String, TransOutput> tempUTXOs) {
+    private static boolean areTransactionsValid(Block currentBlock, int height, Map<String, TransOutput> tempUTXOs,
+                                                boolean verifySignatures, SignatureStats stats) {
+        if (!isCoinbaseValid(currentBlock, height)) return false;
         for (Transaction currentTransaction : currentBlock.getTransactions()) {
-            if (!currentTransaction.verifySignature()) {
-                System.out.println("#Signature on Transaction is Invalid");
-                return false;
+            if (verifySignatures) {
+                long start = System.nanoTime();
+                boolean signatureValid = currentTransaction.verifySignature();
+                stats.nanos += System.nanoTime() - start;
+                stats.verified++;
+                if (!signatureValid) {
+                    System.out.println("#Signature on Transaction is Invalid");
+                    return false;
+                }
+            } else {
+                stats.skipped++;
             }
-            if (!"0".equals(currentTransaction.getTransactionID()) && currentTransaction.getInputsValue() != currentTransaction.getOutputsValue()) {
+            if (!currentTransaction.isCoinbase() && currentTransaction.getInputsValue() != currentTransaction.getOutputsValue()) {
                 System.out.println("#Inputs are not equal to outputs on Transaction");
                 return false;
             }
@@ -142,9 +565,34 @@ public class AevumChain {
         return true;
     }
 
-    private static boolean areTransactionInputsValid(Transaction currentTransaction, HashMap<String, TransOutput> tempUTXOs) {
+    private static boolean isCoinbaseValid(Block currentBlock, int height) {
+        Transaction coinbaseTx = currentBlock.getCoinbase();
+        if (coinbaseTx == null) {
+            System.out.println("#Block has no coinbase transaction");
+            return false;
+        }
+        if (coinbaseTx.getHeight() != height) {
+            System.out.println("#Coinbase height does not match the block height");
+            return false;
+        }
+        if (coinbaseTx.getValue() != MINER_REWARD || !coinbaseTx.getInputs().isEmpty()
+                || coinbaseTx.getOutputs().size() != 1 || coinbaseTx.getOutputsValue() != MINER_REWARD) {
+            System.out.println("#Coinbase does not pay the miner reward");
+            return false;
+        }
+        List<Transaction> transactions = currentBlock.getTransactions();
+        for (int i = 1; i < transactions.size(); i++) {
+            if (transactions.get(i).isCoinbase()) {
+                System.out.println("#Block has more than one coinbase transaction");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean areTransactionInputsValid(Transaction currentTransaction, Map<String, TransOutput> tempUTXOs) {
         for (TransInput input : currentTransaction.getInputs()) {
-            if (!"0".equals(currentTransaction.getTransactionID())) {
+            if (!currentTransaction.isCoinbase()) {
                 TransOutput tempOutput = tempUTXOs.get(input.getTransOutputID());
                 if (tempOutput == null) {
                     System.out.println("#Referenced input on Transaction is Missing");
@@ -154,25 +602,43 @@ public class AevumChain {
                     System.out.println("#Referenced input Transaction value is Invalid");
                     return false;
                 }
+                if (!tempOutput.isMine(currentTransaction.getSender())) {
+                    System.out.println("#Referenced input is not owned by the sender");
+                    return false;
+                }
                 tempUTXOs.remove(input.getTransOutputID());
             }
         }
         return true;
     }
 
-    private static boolean areTransactionOutputsValid(Transaction currentTransaction, HashMap<String, TransOutput> tempUTXOs) {
+    private static boolean areTransactionOutputsValid(Transaction currentTransaction, Map<String, TransOutput> tempUTXOs) {
         for (TransOutput output : currentTransaction.getOutputs()) {
+            if (output.getValue() < 0) {
+                System.out.println("#Transaction output value is negative");
+                return false;
+            }
             tempUTXOs.put(output.getID(), output);
         }
-        if (!currentTransaction.getOutputs().get(0).getRecipient().equals(currentTransaction.getRecipient())) {
+        if (!currentTransaction.getOutputs().get(0).isMine(currentTransaction.getRecipient())) {
             System.out.println("#Transaction output recipient is not correct");
             return false;
         }
-        if (!"0".equals(currentTransaction.getTransactionID()) && !currentTransaction.getOutputs().get(1).getRecipient().equals(currentTransaction.getSender())) {
+        if (!currentTransaction.isCoinbase() && currentTransaction.getOutputs().size() > 1
+                && !currentTransaction.getOutputs().get(1).isMine(currentTransaction.getSender())) {
             System.out.println("#Transaction output 'change' is not sender.");
             return false;
         }
         return true;
     }
+
+    /**
+     * Counts the signature checks of one validation run, so that accepting blocks
+     * never changes the figures reported for the last chain validation.
+     */
+    private static class SignatureStats {
+        private int verified;
+        private int skipped;
+        private long nanos;
+    }
 }
-           
@@ -0,0 +1,467 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import lib.TransInput;
+import lib.Transaction;
+
+/**
+ * Represents a running node that mines, validates transactions and serves client requests concurrently.
+ * Mining runs on a platform thread, validation on a bounded pool and client requests on virtual threads.
+ */
+public class AevumNode {
+    private static final int VALIDATION_QUEUE_CAPACITY = 1024;
+
+    private final AevumChain chain;
+    private final Wallet minerWallet;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition templateReady = lock.newCondition();
+
+    private final ExecutorService miningExecutor;
+    private final ThreadPoolExecutor validationExecutor;
+    private final ExecutorService rpcExecutor;
+
+    private Block template;
+    private volatile long templateVersion;
+    private volatile boolean running;
+    private final int miningThreads;
+    private final Set<Thread> miners = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs a new node with a single mining thread on top of a blockchain that already holds its genesis block.
+     * @param chain             the blockchain the node extends.
+     * @param minerWallet       the wallet that receives mining rewards.
+     * @param validationThreads the number of transaction validation threads.
+     */
+    public AevumNode(AevumChain chain, Wallet minerWallet, int validationThreads) {
+        this(chain, minerWallet, validationThreads, 1);
+    }
+
+    /**
+     * Constructs a new node on top of a blockchain that already holds its genesis block.
+     * Each mining thread searches its own partition of the extra-nonce space.
+     * @param chain             the blockchain the node extends.
+     * @param minerWallet       the wallet that receives mining rewards.
+     * @param validationThreads the number of transaction validation threads.
+     * @param miningThreads     the number of mining threads.
+     */
+    public AevumNode(AevumChain chain, Wallet minerWallet, int validationThreads, int miningThreads) {
+        if (chain.getTip() == null) {
+            throw new IllegalStateException("Blockchain has no genesis block");
+        }
+        this.chain = chain;
+        this.minerWallet = minerWallet;
+        this.template = new Block(chain.getTip().getHash());
+        this.miningThreads = miningThreads;
+
+        this.miningExecutor = Executors.newFixedThreadPool(miningThreads, Thread.ofPlatform().name("aevum-miner-", 0).factory());
+        this.validationExecutor = new ThreadPoolExecutor(
+                validationThreads, validationThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(VALIDATION_QUEUE_CAPACITY),
+                Thread.ofPlatform().name("aevum-validator-", 0).factory(),
+                AevumNode::runOrReject
+        );
+        this.rpcExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Starts the mining threads. A node whose blocks are mined by external workers does not need to be started.
+     */
+    public void start() {
+        running = true;
+        for (ExtraNonceRange range : ExtraNonceRange.ALL.partition(miningThreads)) {
+            miningExecutor.execute(() -> mine(range));
+        }
+    }
+
+    /**
+     * Stops mining and shuts down all executors.
+     */
+    public void shutdown() {
+        running = false;
+        interruptMiners();
+        miningExecutor.shutdownNow();
+        validationExecutor.shutdown();
+        rpcExecutor.shutdown();
+        try {
+            miningExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            validationExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            rpcExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Submits a transaction for validation and inclusion in the next block.
+     * @param transaction the transaction to submit.
+     * @return a future completing with true if the transaction was accepted.
+     * @throws RejectedExecutionException if the node has been shut down.
+     */
+    public CompletableFuture<Boolean> submitTransaction(Transaction transaction) {
+        return CompletableFuture.supplyAsync(() -> validateTransaction(transaction), validationExecutor);
+    }
+
+    /**
+     * Submits a block mined elsewhere. Accepting it interrupts the current mining attempt.
+     * @param block the block to submit.
+     * @return a future completing with true if the block was accepted.
+     * @throws RejectedExecutionException if the node has been shut down.
+     */
+    public CompletableFuture<Boolean> submitBlock(Block block) {
+        return CompletableFuture.supplyAsync(() -> connectBlock(block), validationExecutor);
+    }
+
+    /**
+     * Gets the balance of a wallet on behalf of a client.
+     * @param wallet the wallet to query.
+     * @return a future completing with the wallet balance.
+     */
+    public CompletableFuture<Float> getBalance(Wallet wallet) {
+        return CompletableFuture.supplyAsync(() -> {
+            lock.lock();
+            try {
+                return wallet.getBalance();
+            } finally {
+                lock.unlock();
+            }
+        }, rpcExecutor);
+    }
+
+    /**
+     * Sends funds from a wallet on behalf of a client.
+     * @param sender    the wallet sending the funds.
+     * @param recipient the address of the recipient.
+     * @param value     the amount of funds to send.
+     * @return a future completing with true if the transaction was accepted.
+     */
+    public CompletableFuture<Boolean> sendFunds(Wallet sender, byte[] recipient, float value) {
+        return submitFromWallet(() -> sender.sendFunds(recipient, value));
+    }
+
+    /**
+     * Merges a wallet's smallest unspent outputs on behalf of a client.
+     * @param wallet        the wallet to consolidate.
+     * @param dustThreshold the value below which an output is merged.
+     * @param maxInputs     the maximum number of outputs merged in one transaction.
+     * @return a future completing with true if a consolidation transaction was accepted.
+     */
+    public CompletableFuture<Boolean> consolidateFunds(Wallet wallet, float dustThreshold, int maxInputs) {
+        return submitFromWallet(() -> wallet.consolidateFunds(dustThreshold, maxInputs));
+    }
+
+    /**
+     * Checks the validity of the blockchain on behalf of a client.
+     * @return a future completing with true if the blockchain is valid.
+     */
+    public CompletableFuture<Boolean> isChainValid() {
+        return CompletableFuture.supplyAsync(() -> {
+            lock.lock();
+            try {
+                return chain.isChainValid();
+            } finally {
+                lock.unlock();
+            }
+        }, rpcExecutor);
+    }
+
+    /**
+     * Gets the height of the tip block, which differs from the block count on a
+     * blockchain bootstrapped from a snapshot.
+     * @return the chain height.
+     */
+    public int getHeight() {
+        lock.lock();
+        try {
+            return chain.getHeight(chain.getBlockchain().size() - 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a snapshot of the next block for mining, with a fresh coinbase paying the node's
+     * miner wallet. The candidate's Merkle root is already set, so only the nonce, extra-nonce
+     * and timestamp remain to be searched.
+     * @return the block template.
+     */
+    public BlockTemplate getBlockTemplate() {
+        lock.lock();
+        try {
+            Block candidate = new Block(template.getPreviousHash());
+            candidate.getTransactions().add(chain.createCoinbaseTransaction(minerWallet));
+            candidate.getTransactions().addAll(template.getTransactions());
+            candidate.updateMerkleRoot();
+            return new BlockTemplate(candidate, templateVersion);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Subscribes to the node's chain and UTXO events, first replaying the blocks from the given height onwards.
+     * UTXO events only cover confirmed blocks; mempool transactions are announced as
+     * {@link ChainEvent.Type#TRANSACTION_PENDING} and their outputs appear once a block accepts them.
+     * Publishing never waits for subscribers; one that falls too far behind receives an
+     * {@link ChainEvent.Type#EVENTS_DROPPED} event and should subscribe again from its last connected block.
+     * @param fromHeight the height of the first block to replay, or a height above the tip to only receive new events.
+     * @return the subscription.
+     */
+    public EventSubscription subscribe(int fromHeight) {
+        lock.lock();
+        try {
+            return chain.subscribeEvents(fromHeight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the current template version. The version changes whenever a transaction
+     * is added to the template or a new block is connected.
+     * @return the template version.
+     */
+    public long getTemplateVersion() {
+        return templateVersion;
+    }
+
+    /**
+     * Connects a block mined from a template.
+     * @param minedBlock      the mined block.
+     * @param templateVersion the version of the template the block was mined from.
+     * @return true if the block was connected, false if it is invalid or the template is stale.
+     */
+    public boolean submitMinedBlock(Block minedBlock, long templateVersion) {
+        if (!minedBlock.getHash().equals(minedBlock.calculateHash())
+                || !Block.meetsDifficulty(minedBlock.getHash(), AevumChain.DIFFICULTY)) {
+            System.out.println("#This block hasn't been mined");
+            return false;
+        }
+
+        lock.lock();
+        try {
+            if (templateVersion != this.templateVersion) return false;
+            chain.appendBlock(minedBlock);
+            resetTemplate(new ArrayList<>());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs a task that did not fit in the validation queue on the submitting thread,
+     * throttling the submitter, unless the executor has been shut down.
+     * @param task     the rejected task.
+     * @param executor the executor that rejected it.
+     * @throws RejectedExecutionException if the executor has been shut down.
+     */
+    private static void runOrReject(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Node is shut down");
+        }
+        task.run();
+    }
+
+    /**
+     * Builds a wallet transaction under the lock and submits it for validation.
+     * @param builder builds the transaction, returning null if nothing should be sent.
+     * @return a future completing with true if the transaction was accepted.
+     */
+    private CompletableFuture<Boolean> submitFromWallet(Supplier<Transaction> builder) {
+        return CompletableFuture.supplyAsync(() -> {
+            Transaction transaction;
+            lock.lock();
+            try {
+                transaction = builder.get();
+            } finally {
+                lock.unlock();
+            }
+            return transaction != null && submitTransaction(transaction).join();
+        }, rpcExecutor);
+    }
+
+    /**
+     * Mines blocks from the current template until the node is shut down.
+     * A mining attempt is abandoned whenever the template changes.
+     * @param range the extra-nonces this mining thread searches.
+     */
+    private void mine(ExtraNonceRange range) {
+        miners.add(Thread.currentThread());
+        while (running) {
+            Thread.interrupted();
+            BlockTemplate blockTemplate;
+            lock.lock();
+            try {
+                while (running && template.getTransactions().isEmpty()) {
+                    try {
+                        templateReady.await();
+                    } catch (InterruptedException e) {
+                        // Woken by a template change or shutdown; re-check the template.
+                    }
+                }
+                if (!running) return;
+                blockTemplate = getBlockTemplate();
+            } finally {
+                lock.unlock();
+            }
+
+            Block candidate = blockTemplate.getBlock();
+            if (!candidate.mineBlock(AevumChain.DIFFICULTY, range)) continue;
+            submitMinedBlock(candidate, blockTemplate.getVersion());
+        }
+    }
+
+    /**
+     * Validates a transaction and adds it to the block template.
+     * The signature is checked outside the lock so validators run in parallel.
+     * @param transaction the transaction to validate.
+     * @return true if the transaction was added to the template, false otherwise.
+     */
+    private boolean validateTransaction(Transaction transaction) {
+        if (transaction == null) return false;
+        if (!transaction.verifySignature()) {
+            System.out.println("#Transaction Signature failed to verify");
+            return false;
+        }
+
+        lock.lock();
+        try {
+            if (!areInputsUnspent(transaction)) {
+                System.out.println("#Referenced input on Transaction is Missing");
+                return false;
+            }
+            if (!areInputsDistinct(transaction)) {
+                System.out.println("#Transaction spends the same input more than once");
+                return false;
+            }
+            if (!isValueCovered(transaction)) {
+                System.out.println("#Transaction value is not covered by its inputs");
+                return false;
+            }
+            if (!transaction.applyTransaction(chain.getUTXOs())) return false;
+            chain.getEvents().publish(ChainEvent.Type.TRANSACTION_PENDING, -1, null, transaction.getTransactionID(), null);
+            template.getTransactions().add(transaction);
+            templateChanged();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Connects a block mined elsewhere. Template transactions are reverted first
+     * and re-applied afterwards unless the block already contains them.
+     * @param block the block to connect.
+     * @return true if the block was connected, false otherwise.
+     */
+    private boolean connectBlock(Block block) {
+        lock.lock();
+        try {
+            List<Transaction> pending = template.getTransactions();
+            for (int i = pending.size() - 1; i >= 0; i--) {
+                pending.get(i).revertTransaction(chain.getUTXOs());
+            }
+
+            if (!chain.acceptBlock(block)) {
+                for (Transaction transaction : pending) {
+                    transaction.applyTransaction(chain.getUTXOs());
+                }
+                return false;
+            }
+
+            Set<String> included = new HashSet<>();
+            for (Transaction transaction : block.getTransactions()) {
+                included.add(transaction.getTransactionID());
+            }
+            List<Transaction> remaining = new ArrayList<>();
+            for (Transaction transaction : pending) {
+                if (!included.contains(transaction.getTransactionID()) && areInputsUnspent(transaction)) {
+                    transaction.applyTransaction(chain.getUTXOs());
+                    remaining.add(transaction);
+                }
+            }
+            resetTemplate(remaining);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks that every input of a transaction still refers to an unspent output.
+     * @param transaction the transaction to check.
+     * @return true if all inputs are unspent, false otherwise.
+     */
+    private boolean areInputsUnspent(Transaction transaction) {
+        for (TransInput input : transaction.getInputs()) {
+            if (!chain.getUTXOs().containsKey(input.getTransOutputID())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks that no output is referenced by more than one input of a transaction.
+     * @param transaction the transaction to check.
+     * @return true if all inputs are distinct, false otherwise.
+     */
+    private static boolean areInputsDistinct(Transaction transaction) {
+        Set<String> inputIDs = new HashSet<>();
+        for (TransInput input : transaction.getInputs()) {
+            if (!inputIDs.add(input.getTransOutputID())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks that a transaction sends a positive value no larger than the outputs it spends. Must hold the lock.
+     * @param transaction the transaction to check.
+     * @return true if the value is covered by the inputs, false otherwise.
+     */
+    private boolean isValueCovered(Transaction transaction) {
+        float total = 0;
+        for (TransInput input : transaction.getInputs()) {
+            total += chain.getUTXOs().get(input.getTransOutputID()).getValue();
+        }
+        return transaction.getValue() > 0 && transaction.getValue() <= total;
+    }
+
+    /**
+     * Replaces the block template with a new one on top of the current tip. Must hold the lock.
+     * @param transactions the transactions carried over into the new template.
+     */
+    private void resetTemplate(List<Transaction> transactions) {
+        template = new Block(chain.getTip().getHash());
+        template.getTransactions().addAll(transactions);
+        templateChanged();
+    }
+
+    /**
+     * Signals the miner that the block template changed. Must hold the lock.
+     */
+    private void templateChanged() {
+        templateVersion++;
+        templateReady.signalAll();
+        interruptMiners();
+    }
+
+    private void interruptMiners() {
+        for (Thread miner : miners) {
+            miner.interrupt();
+        }
+    }
+}
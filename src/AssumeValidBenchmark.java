@@ -0,0 +1,52 @@
+package src;
+
+import java.security.Security;
+
+/**
+ * Measures chain validation with and without an assume-valid checkpoint near the tip.
+ * Builds a chain with a number of payments per block, warms up, then times both runs.
+ */
+public class AssumeValidBenchmark {
+
+    private AssumeValidBenchmark() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args the number of blocks, 200 by default, and payments per block, 5 by default.
+     */
+    public static void main(String[] args) {
+        Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
+        int blocks = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int payments = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        AevumChain chain = new AevumChain();
+        Wallet miner = new Wallet(chain);
+        Wallet recipient = new Wallet(chain);
+        chain.mintBlock(new Block("0"), miner);
+        for (int i = 0; i < blocks; i++) {
+            Block block = new Block(chain.getTip().getHash());
+            for (int j = 0; j < payments; j++) {
+                block.addTransaction(miner.sendFunds(recipient.getAddress(), AevumChain.MIN_TRANSACTION), chain.getUTXOs());
+            }
+            chain.mintBlock(block, miner);
+        }
+
+        chain.isChainValid();
+        chain.isChainValid();
+        long start = System.nanoTime();
+        boolean fullValid = chain.isChainValid();
+        long full = System.nanoTime() - start;
+
+        chain.setAssumeValid(chain.getBlockchain().get(blocks - blocks / 20).getHash());
+        start = System.nanoTime();
+        boolean assumedValid = chain.isChainValid();
+        long assumed = System.nanoTime() - start;
+
+        System.out.println(blocks + " blocks, " + (payments + 1) + " transactions per block:");
+        System.out.printf("  full validation       %8.1f ms (valid=%s)%n", full / 1e6, fullValid);
+        System.out.printf("  with assume-valid     %8.1f ms (valid=%s, %d signatures skipped, ~%d ms saved)%n",
+                assumed / 1e6, assumedValid, chain.getSkippedSignatures(), chain.getAssumeValidSavingsMillis());
+    }
+}
@@ -3,8 +3,11 @@ package src;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import lib.Transaction;
+import lib.TransOutput;
+import utils.MerkleTree;
 import utils.StringUtil;
 
 /**
@@ -17,6 +20,8 @@ public class Block {
     public long timeStamp;
     public int nonce;
     public List<Transaction> transactions = new ArrayList<>();
+    private boolean pruned;
+    private MerkleTree merkleTree;
 
     /**
      * Constructs a new block with the given previous hash.
@@ -33,40 +38,147 @@ public class Block {
      * @return the calculated hash.
      */
     public String calculateHash() {
+        return calculateHash(previousHash, timeStamp, nonce, merkleRoot);
+    }
+
+    /**
+     * Calculates the hash of a block header.
+     * @param previousHash the hash of the previous block.
+     * @param timeStamp    the timestamp of the block.
+     * @param nonce        the nonce of the block.
+     * @param merkleRoot   the Merkle root of the block's transactions.
+     * @return the calculated hash.
+     */
+    public static String calculateHash(String previousHash, long timeStamp, int nonce, String merkleRoot) {
         return StringUtil.applySha256(
                 previousHash +
                 Long.toString(timeStamp) +
                 Integer.toString(nonce) +
-                this.merkleRoot
+                merkleRoot
         );
     }
 
     /**
-     * Mines the block with the given difficulty.
+     * Checks if a hash satisfies the given difficulty.
+     * @param hash       the hash to check.
+     * @param difficulty the number of leading zeros required.
+     * @return true if the hash has enough leading zeros, false otherwise.
+     */
+    public static boolean meetsDifficulty(String hash, int difficulty) {
+        for (int i = 0; i < difficulty; i++) {
+            if (hash.charAt(i) != '0') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Recalculates the Merkle root from the block's transactions and updates the hash.
+     */
+    public void updateMerkleRoot() {
+        List<String> leaves = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            leaves.add(transaction.getTransactionID());
+        }
+        this.merkleTree = new MerkleTree(leaves);
+        this.merkleRoot = merkleTree.getRoot();
+        this.hash = this.calculateHash();
+    }
+
+    /**
+     * Gets the block's coinbase transaction.
+     * @return the first transaction if it is a coinbase, null otherwise.
+     */
+    public Transaction getCoinbase() {
+        if (transactions.isEmpty() || !transactions.get(0).isCoinbase()) {
+            return null;
+        }
+        return transactions.get(0);
+    }
+
+    /**
+     * Sets the extra-nonce of the block's coinbase, rehashing only the coinbase's
+     * path in the Merkle tree, and restarts the nonce.
+     * @param extraNonce the new extra-nonce.
+     */
+    public void setExtraNonce(long extraNonce) {
+        Transaction coinbase = getCoinbase();
+        if (coinbase == null) {
+            throw new IllegalStateException("Block has no coinbase transaction");
+        }
+        if (merkleTree == null) {
+            updateMerkleRoot();
+        }
+        coinbase.setExtraNonce(extraNonce);
+        this.merkleRoot = merkleTree.updateLeaf(0, coinbase.getTransactionID());
+        this.nonce = 0;
+        this.hash = this.calculateHash();
+    }
+
+    /**
+     * Moves the timestamp forward to the current time, or by one millisecond if the
+     * clock has not moved past it, so a rolled timestamp never goes backwards and
+     * only runs ahead of the clock when a whole nonce space is exhausted within a millisecond.
+     */
+    public void rollTimeStamp() {
+        this.timeStamp = Math.max(this.timeStamp + 1, System.currentTimeMillis());
+        this.hash = this.calculateHash();
+    }
+
+    /**
+     * Mines the block with the given difficulty, stopping early if the mining thread is interrupted.
      * @param difficulty the difficulty of the mining process.
+     * @return true if the block was mined, false if mining was interrupted.
      */
-    public void mineBlock(int difficulty) {
-        this.merkleRoot = StringUtil.getMerkleRoot(transactions);
-        String target = new String(new char[difficulty]).replace('\0', '0');
-        while (!this.hash.substring(0, difficulty).equals(target)) {
-            nonce += 1;
-            this.hash = this.calculateHash();
+    public boolean mineBlock(int difficulty) {
+        return mineBlock(difficulty, ExtraNonceRange.ALL);
+    }
+
+    /**
+     * Mines the block over part of the header search space: every 32-bit nonce for each
+     * extra-nonce in the range. The timestamp is rolled whenever the extra-nonce changes.
+     * Blocks without a coinbase roll only the timestamp. Stops early if the mining thread is interrupted.
+     * @param difficulty the difficulty of the mining process.
+     * @param range      the extra-nonces to search.
+     * @return true if the block was mined, false if mining was interrupted or the range was exhausted.
+     */
+    public boolean mineBlock(int difficulty, ExtraNonceRange range) {
+        updateMerkleRoot();
+        boolean hasCoinbase = getCoinbase() != null;
+        for (long extraNonce = range.getStart(); extraNonce < range.getEnd(); extraNonce++) {
+            if (hasCoinbase) {
+                setExtraNonce(extraNonce);
+            }
+            if (extraNonce > range.getStart()) {
+                rollTimeStamp();
+            }
+            for (long attempt = 0; attempt < 1L << 32; attempt++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                this.nonce = (int) attempt;
+                this.hash = this.calculateHash();
+                if (meetsDifficulty(this.hash, difficulty)) {
+                    System.out.println("[+] Block mined: " + this.hash);
+                    return true;
+                }
+            }
         }
-        System.out.println("[+] Block mined: " + this.hash);
+        return false;
     }
 
     /**
      * Adds a transaction to the block.
      * @param transaction the transaction to add.
+     * @param UTXOs       the unspent outputs the transaction spends from.
      * @return true if the transaction is added successfully, false otherwise.
      */
-    public boolean addTransaction(Transaction transaction) {
+    public boolean addTransaction(Transaction transaction, Map<String, TransOutput> UTXOs) {
         if (transaction == null) {
             return false;
         }
 
         if (!previousHash.equals("0")) {
-            if (!transaction.processTransaction()) {
+            if (!transaction.processTransaction(UTXOs)) {
                 System.out.println("[!] Transaction failed to process. Discarded.");
                 return false;
             }
@@ -76,6 +188,24 @@ public class Block {
         return true;
     }
 
+    /**
+     * Discards the block's transactions, keeping only the header fields needed
+     * to check its hash, proof of work and linkage.
+     */
+    public void prune() {
+        this.transactions = List.of();
+        this.merkleTree = null;
+        this.pruned = true;
+    }
+
+    /**
+     * Checks if the block's transactions have been discarded.
+     * @return true if the block is pruned, false otherwise.
+     */
+    public boolean isPruned() {
+        return this.pruned;
+    }
+
     /**
      * Gets the hash of the block.
      * @return the hash of the block.
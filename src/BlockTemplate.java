@@ -0,0 +1,44 @@
+package src;
+
+/**
+ * Represents a snapshot of a node's next block together with the template version it was taken at.
+ */
+public class BlockTemplate {
+    private final Block block;
+    private final long version;
+
+    /**
+     * Constructs a new block template.
+     * @param block   the unmined candidate block.
+     * @param version the template version the candidate was taken at.
+     */
+    public BlockTemplate(Block block, long version) {
+        this.block = block;
+        this.version = version;
+    }
+
+    /**
+     * Gets the unmined candidate block.
+     * @return the candidate block.
+     */
+    public Block getBlock() {
+        return block;
+    }
+
+    /**
+     * Checks if the candidate carries any transactions besides its coinbase.
+     * @return true if there are transactions to confirm, false otherwise.
+     */
+    public boolean hasTransactions() {
+        int count = block.getTransactions().size();
+        return block.getCoinbase() == null ? count > 0 : count > 1;
+    }
+
+    /**
+     * Gets the template version the candidate was taken at.
+     * @return the template version.
+     */
+    public long getVersion() {
+        return version;
+    }
+}
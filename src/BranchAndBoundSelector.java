@@ -0,0 +1,87 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import lib.TransOutput;
+
+/**
+ * Searches for outputs whose total matches the value exactly, up to float rounding,
+ * so the transaction needs no change output. Falls back to another selector when no
+ * match is found within the search budget.
+ */
+public class BranchAndBoundSelector implements CoinSelector {
+    private final int maxTries;
+    private final CoinSelector fallback;
+
+    /**
+     * Constructs a new branch-and-bound selector.
+     * @param maxTries the maximum number of search steps.
+     * @param fallback the selector used when no match is found.
+     */
+    public BranchAndBoundSelector(int maxTries, CoinSelector fallback) {
+        this.maxTries = maxTries;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public List<TransOutput> select(SortedUTXOSet UTXOs, float value) {
+        List<TransOutput> selected = search(UTXOs, value);
+        if (selected != null) {
+            return selected;
+        }
+        return fallback.select(UTXOs, value);
+    }
+
+    /**
+     * Depth-first search over include/exclude decisions, largest outputs first. The search
+     * advances one output per step, so only the first maxTries outputs are ever visited and
+     * the included outputs are tracked on an explicit stack rather than the call stack.
+     * @param UTXOs the wallet's unspent outputs.
+     * @param value the amount of funds to match.
+     * @return the matching outputs, or null if none were found within the search budget.
+     */
+    private List<TransOutput> search(SortedUTXOSet UTXOs, float value) {
+        int count = (int) Math.min(UTXOs.size(), (long) maxTries + 1);
+        TransOutput[] candidates = new TransOutput[count];
+        long[] before = new long[count + 1];
+        Iterator<TransOutput> descending = UTXOs.descending().iterator();
+        for (int i = 0; i < count; i++) {
+            candidates[i] = descending.next();
+            before[i + 1] = before[i] + SortedUTXOSet.toUnits(candidates[i].getValue());
+        }
+
+        long target = SortedUTXOSet.toUnits(value);
+        long precision = SortedUTXOSet.getPrecisionUnits(value);
+        long setTotal = UTXOs.getTotalUnits();
+        int[] included = new int[count];
+        int depth = 0;
+        int index = 0;
+        long total = 0;
+        for (int tries = 0; tries < maxTries; tries++) {
+            if (total >= target - precision && total <= target + precision) {
+                List<TransOutput> selected = new ArrayList<>(depth);
+                for (int i = 0; i < depth; i++) {
+                    selected.add(candidates[included[i]]);
+                }
+                return selected;
+            }
+
+            boolean backtrack = total > target + precision
+                    || total + setTotal - before[index] < target - precision
+                    || index == count;
+            if (backtrack) {
+                if (depth == 0) return null;
+                index = included[--depth];
+                total -= before[index + 1] - before[index];
+                index++;
+            } else {
+                included[depth++] = index;
+                total += before[index + 1] - before[index];
+                index++;
+            }
+        }
+        return null;
+    }
+}
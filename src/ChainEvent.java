@@ -0,0 +1,102 @@
+package src;
+
+import lib.TransOutput;
+
+/**
+ * Represents a change to the blockchain or its unspent outputs, as delivered to event subscribers.
+ */
+public class ChainEvent {
+
+    /**
+     * The kinds of chain events.
+     */
+    public enum Type {
+        /** A block was added to the tip of the chain. */
+        BLOCK_CONNECTED,
+        /** The tip block was removed from the chain. */
+        BLOCK_DISCONNECTED,
+        /** An output entered the UTXO set. */
+        UTXO_CREATED,
+        /** An output left the UTXO set. */
+        UTXO_SPENT,
+        /** A transaction was confirmed in a block. */
+        TRANSACTION_ACCEPTED,
+        /** A transaction entered the mempool; it changes no confirmed outputs until it is accepted in a block. */
+        TRANSACTION_PENDING,
+        /** The subscriber fell behind and lost events; it should replay from its last connected block. */
+        EVENTS_DROPPED
+    }
+
+    private final Type type;
+    private final long sequence;
+    private final int height;
+    private final String blockHash;
+    private final String transactionID;
+    private final TransOutput output;
+
+    /**
+     * Constructs a new chain event.
+     * @param type          the kind of event.
+     * @param sequence      the position of the event in the stream, or -1 for replayed events.
+     * @param height        the height of the block involved, or -1 for pending transactions.
+     * @param blockHash     the hash of the block involved, or null.
+     * @param transactionID the ID of the transaction involved, or null.
+     * @param output        the output created or spent, or null.
+     */
+    public ChainEvent(Type type, long sequence, int height, String blockHash, String transactionID, TransOutput output) {
+        this.type = type;
+        this.sequence = sequence;
+        this.height = height;
+        this.blockHash = blockHash;
+        this.transactionID = transactionID;
+        this.output = output;
+    }
+
+    /**
+     * Gets the kind of event.
+     * @return the event type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the position of the event in the stream.
+     * @return the sequence number, or -1 for replayed events.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the height of the block involved.
+     * @return the block height, or -1 for pending transactions.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the hash of the block involved.
+     * @return the block hash, or null.
+     */
+    public String getBlockHash() {
+        return blockHash;
+    }
+
+    /**
+     * Gets the ID of the transaction involved.
+     * @return the transaction ID, or null.
+     */
+    public String getTransactionID() {
+        return transactionID;
+    }
+
+    /**
+     * Gets the output created or spent.
+     * @return the output, or null.
+     */
+    public TransOutput getOutput() {
+        return output;
+    }
+}
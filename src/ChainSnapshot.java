@@ -0,0 +1,237 @@
+package src;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import lib.TransOutput;
+import utils.MerkleTree;
+import utils.StringUtil;
+
+/**
+ * Exports and imports UTXO set snapshots so a node can bootstrap without replaying the chain.
+ * <p>
+ * A snapshot is a directory holding a manifest and gzip-compressed chunks of outputs sorted by ID.
+ * The manifest lists the header and height of the snapshot block, the SHA-256 of every chunk,
+ * the Merkle root of those chunk hashes and a commitment hashing the block, height, output count
+ * and chunk root together. Operators pin the commitment; everything else is checked against it.
+ */
+public class ChainSnapshot {
+    private static final String MANIFEST = "manifest.txt";
+    private static final String[] MANIFEST_FIELDS = {
+        "blockHash", "previousHash", "merkleRoot", "timeStamp", "nonce", "height", "outputs", "chunkRoot"
+    };
+
+    private ChainSnapshot() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Exports the UTXO set as it was right after the given block.
+     * @param chain     the blockchain to export from.
+     * @param blockHash the hash of the snapshot block.
+     * @param directory the directory to write the snapshot to.
+     * @param chunkSize the number of outputs per chunk.
+     * @return the snapshot commitment.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public static String export(AevumChain chain, String blockHash, Path directory, int chunkSize) throws IOException {
+        List<TransOutput> outputs = new ArrayList<>(chain.getUTXOsAt(blockHash).values());
+        int index = chain.indexOf(blockHash);
+        Block block = chain.getBlockchain().get(index);
+        int height = chain.getHeight(index);
+        outputs.sort((a, b) -> a.getID().compareTo(b.getID()));
+
+        Files.createDirectories(directory);
+        List<String> chunkHashes = new ArrayList<>();
+        for (int start = 0; start < outputs.size() || start == 0; start += chunkSize) {
+            StringBuilder chunk = new StringBuilder();
+            for (TransOutput output : outputs.subList(start, Math.min(start + chunkSize, outputs.size()))) {
+                chunk.append(output.getID()).append(' ')
+                        .append(StringUtil.toHex(output.getAddress())).append(' ')
+                        .append(Float.toString(output.getValue())).append(' ')
+                        .append(output.getParentTransactionID()).append('\n');
+            }
+            String content = chunk.toString();
+            chunkHashes.add(StringUtil.applySha256(content));
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(chunkPath(directory, chunkHashes.size() - 1)))) {
+                out.write(content.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        String chunkRoot = new MerkleTree(chunkHashes).getRoot();
+        String commitment = commitment(blockHash, height, outputs.size(), chunkRoot);
+        StringBuilder manifest = new StringBuilder();
+        manifest.append("commitment ").append(commitment).append('\n')
+                .append("blockHash ").append(blockHash).append('\n')
+                .append("previousHash ").append(block.getPreviousHash()).append('\n')
+                .append("merkleRoot ").append(block.merkleRoot).append('\n')
+                .append("timeStamp ").append(block.timeStamp).append('\n')
+                .append("nonce ").append(block.nonce).append('\n')
+                .append("height ").append(height).append('\n')
+                .append("outputs ").append(outputs.size()).append('\n')
+                .append("chunkRoot ").append(chunkRoot).append('\n');
+        for (String chunkHash : chunkHashes) {
+            manifest.append("chunk ").append(chunkHash).append('\n');
+        }
+        Files.writeString(directory.resolve(MANIFEST), manifest.toString());
+        System.out.println("[+] Exported " + outputs.size() + " UTXOs at height " + height + " in " + chunkHashes.size() + " chunks");
+        return commitment;
+    }
+
+    /**
+     * Imports a snapshot into a new blockchain, verifying the chunks in parallel.
+     * @param directory          the snapshot directory.
+     * @param expectedCommitment the trusted commitment of the snapshot.
+     * @param pruneDepth         the prune depth of the new blockchain, or 0 to never prune.
+     * @return the bootstrapped blockchain, or null if the snapshot is invalid.
+     * @throws IOException if the snapshot cannot be read.
+     */
+    public static AevumChain load(Path directory, String expectedCommitment, int pruneDepth) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        List<String> chunkHashes = new ArrayList<>();
+        for (String line : Files.readAllLines(directory.resolve(MANIFEST))) {
+            if (line.isEmpty()) continue;
+            String[] parts = line.split(" ", 2);
+            if (parts.length != 2 || parts[1].isEmpty()) {
+                System.out.println("#Snapshot manifest line is malformed: " + line);
+                return null;
+            }
+            if ("chunk".equals(parts[0])) {
+                chunkHashes.add(parts[1]);
+            } else {
+                fields.put(parts[0], parts[1]);
+            }
+        }
+        for (String field : MANIFEST_FIELDS) {
+            if (!fields.containsKey(field)) {
+                System.out.println("#Snapshot manifest is missing " + field);
+                return null;
+            }
+        }
+
+        String blockHash = fields.get("blockHash");
+        int height;
+        int outputCount;
+        long timeStamp;
+        int nonce;
+        try {
+            height = Integer.parseInt(fields.get("height"));
+            outputCount = Integer.parseInt(fields.get("outputs"));
+            timeStamp = Long.parseLong(fields.get("timeStamp"));
+            nonce = Integer.parseInt(fields.get("nonce"));
+        } catch (NumberFormatException e) {
+            System.out.println("#Snapshot manifest has an invalid number: " + e.getMessage());
+            return null;
+        }
+        String chunkRoot = new MerkleTree(chunkHashes).getRoot();
+        if (!chunkRoot.equals(fields.get("chunkRoot"))
+                || !commitment(blockHash, height, outputCount, chunkRoot).equals(expectedCommitment)) {
+            System.out.println("#Snapshot commitment does not match");
+            return null;
+        }
+
+        Block baseBlock = new Block(fields.get("previousHash"));
+        baseBlock.merkleRoot = fields.get("merkleRoot");
+        baseBlock.timeStamp = timeStamp;
+        baseBlock.nonce = nonce;
+        baseBlock.hash = baseBlock.calculateHash();
+        baseBlock.prune();
+        if (!baseBlock.getHash().equals(blockHash) || !Block.meetsDifficulty(blockHash, AevumChain.DIFFICULTY)) {
+            System.out.println("#Snapshot block header is invalid");
+            return null;
+        }
+
+        HashMap<String, TransOutput> UTXOs = readChunks(directory, chunkHashes);
+        if (UTXOs == null) return null;
+        if (UTXOs.size() != outputCount) {
+            System.out.println("#Snapshot output count does not match");
+            return null;
+        }
+
+        AevumChain chain = new AevumChain(pruneDepth);
+        chain.loadSnapshot(baseBlock, height, UTXOs);
+        System.out.println("[+] Loaded " + UTXOs.size() + " UTXOs at height " + height);
+        return chain;
+    }
+
+    /**
+     * Decompresses, hashes and parses every chunk on its own thread.
+     * @return the outputs of all chunks, or null if any chunk fails verification.
+     */
+    private static HashMap<String, TransOutput> readChunks(Path directory, List<String> chunkHashes) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<List<TransOutput>>> chunks = new ArrayList<>();
+            for (int i = 0; i < chunkHashes.size(); i++) {
+                Path path = chunkPath(directory, i);
+                String expectedHash = chunkHashes.get(i);
+                chunks.add(executor.submit(() -> readChunk(path, expectedHash)));
+            }
+
+            HashMap<String, TransOutput> UTXOs = new HashMap<>();
+            for (int i = 0; i < chunks.size(); i++) {
+                List<TransOutput> outputs = chunks.get(i).get();
+                if (outputs == null) {
+                    System.out.println("#Snapshot chunk " + i + " is corrupt");
+                    return null;
+                }
+                for (TransOutput output : outputs) {
+                    UTXOs.put(output.getID(), output);
+                }
+            }
+            return UTXOs;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading snapshot", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads one chunk and checks its hash and the ID of every output in it.
+     * @return the chunk's outputs, or null if the chunk is corrupt.
+     */
+    private static List<TransOutput> readChunk(Path path, String expectedHash) throws IOException {
+        String content;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+            content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        if (!StringUtil.applySha256(content).equals(expectedHash)) return null;
+
+        List<TransOutput> outputs = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            if (line.isEmpty()) continue;
+            String[] parts = line.split(" ");
+            if (parts.length != 4) return null;
+            TransOutput output = new TransOutput(StringUtil.fromHex(parts[1]), Float.parseFloat(parts[2]), parts[3]);
+            if (!output.getID().equals(parts[0])) return null;
+            outputs.add(output);
+        }
+        return outputs;
+    }
+
+    private static String commitment(String blockHash, int height, int outputCount, String chunkRoot) {
+        return StringUtil.applySha256(blockHash + height + ":" + outputCount + chunkRoot);
+    }
+
+    private static Path chunkPath(Path directory, int index) {
+        return directory.resolve("chunk-" + index + ".gz");
+    }
+}
@@ -0,0 +1,19 @@
+package src;
+
+import java.util.List;
+
+import lib.TransOutput;
+
+/**
+ * Strategy for choosing which unspent outputs fund a transaction.
+ */
+public interface CoinSelector {
+
+    /**
+     * Selects unspent outputs covering the given value.
+     * @param UTXOs the wallet's unspent outputs.
+     * @param value the amount of funds to cover.
+     * @return the selected outputs, or null if the outputs cannot cover the value.
+     */
+    List<TransOutput> select(SortedUTXOSet UTXOs, float value);
+}
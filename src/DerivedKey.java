@@ -0,0 +1,38 @@
+package src;
+
+import java.security.KeyPair;
+
+/**
+ * Represents a key pair derived by an {@link HDKeyChain} together with its child index,
+ * which is all that is needed besides the seed to recover the key.
+ */
+public class DerivedKey {
+    private final int index;
+    private final KeyPair keyPair;
+
+    /**
+     * Constructs a new derived key.
+     * @param index   the child index the key was derived at.
+     * @param keyPair the derived key pair.
+     */
+    public DerivedKey(int index, KeyPair keyPair) {
+        this.index = index;
+        this.keyPair = keyPair;
+    }
+
+    /**
+     * Gets the child index the key was derived at.
+     * @return the child index.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the derived key pair.
+     * @return the key pair.
+     */
+    public KeyPair getKeyPair() {
+        return keyPair;
+    }
+}
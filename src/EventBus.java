@@ -0,0 +1,98 @@
+package src;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import lib.TransOutput;
+
+/**
+ * Publishes chain events into a bounded ring buffer shared by all subscribers.
+ * Publishing never waits for subscribers: a subscriber that falls more than the
+ * ring's capacity behind skips ahead and receives an {@link ChainEvent.Type#EVENTS_DROPPED} event.
+ */
+public class EventBus {
+    private final ChainEvent[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private long nextSequence;
+
+    /**
+     * Constructs a new event bus.
+     * @param capacity the number of most recent events kept for subscribers.
+     */
+    public EventBus(int capacity) {
+        this.ring = new ChainEvent[capacity];
+    }
+
+    /**
+     * Publishes an event to all subscribers.
+     * @param type          the kind of event.
+     * @param height        the height of the block involved, or -1 for pending transactions.
+     * @param blockHash     the hash of the block involved, or null.
+     * @param transactionID the ID of the transaction involved, or null.
+     * @param output        the output created or spent, or null.
+     */
+    public void publish(ChainEvent.Type type, int height, String blockHash, String transactionID, TransOutput output) {
+        lock.lock();
+        try {
+            ring[(int) (nextSequence % ring.length)] = new ChainEvent(type, nextSequence, height, blockHash, transactionID, output);
+            nextSequence++;
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Subscribes to events published from now on.
+     * @return the subscription.
+     */
+    public EventSubscription subscribe() {
+        return subscribe(List.of());
+    }
+
+    /**
+     * Subscribes to events published from now on, delivered after the given replayed events.
+     * @param replay the events delivered first.
+     * @return the subscription.
+     */
+    EventSubscription subscribe(List<ChainEvent> replay) {
+        lock.lock();
+        try {
+            return new EventSubscription(this, replay, nextSequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the next event for a subscription, waiting up to the timeout for one to be published.
+     * @param subscription the subscription to read for.
+     * @param timeout      the maximum time to wait.
+     * @param unit         the unit of the timeout.
+     * @return the next event, or null if none was published in time.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    ChainEvent next(EventSubscription subscription, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            long cursor = subscription.getCursor();
+            while (cursor == nextSequence) {
+                if (nanos <= 0) return null;
+                nanos = published.awaitNanos(nanos);
+            }
+            if (nextSequence - cursor > ring.length) {
+                long oldest = nextSequence - ring.length;
+                subscription.skip(oldest, oldest - cursor);
+                return new ChainEvent(ChainEvent.Type.EVENTS_DROPPED, cursor, -1, null, null, null);
+            }
+            subscription.advance();
+            return ring[(int) (cursor % ring.length)];
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package src;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents one consumer's position in an {@link EventBus}. Replayed events are delivered before live ones.
+ */
+public class EventSubscription {
+    private final EventBus bus;
+    private final ArrayDeque<ChainEvent> replay;
+    private long cursor;
+    private long dropped;
+
+    EventSubscription(EventBus bus, List<ChainEvent> replay, long cursor) {
+        this.bus = bus;
+        this.replay = new ArrayDeque<>(replay);
+        this.cursor = cursor;
+    }
+
+    /**
+     * Takes the next event, waiting up to the timeout for one to be published.
+     * @param timeout the maximum time to wait.
+     * @param unit    the unit of the timeout.
+     * @return the next event, or null if none was published in time.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public ChainEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!replay.isEmpty()) {
+            return replay.poll();
+        }
+        return bus.next(this, timeout, unit);
+    }
+
+    /**
+     * Gets the number of events this subscriber missed by falling behind.
+     * @return the number of dropped events.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    long getCursor() {
+        return cursor;
+    }
+
+    void advance() {
+        cursor++;
+    }
+
+    void skip(long newCursor, long missed) {
+        cursor = newCursor;
+        dropped += missed;
+    }
+}
@@ -0,0 +1,60 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a half-open range of coinbase extra-nonces. Each extra-nonce gives the
+ * header a different Merkle root, so miners searching disjoint ranges never repeat work.
+ */
+public class ExtraNonceRange {
+    /** The whole extra-nonce space. */
+    public static final ExtraNonceRange ALL = new ExtraNonceRange(0, Long.MAX_VALUE);
+
+    private final long start;
+    private final long end;
+
+    /**
+     * Constructs a new extra-nonce range.
+     * @param start the first extra-nonce, inclusive.
+     * @param end   the last extra-nonce, exclusive.
+     */
+    public ExtraNonceRange(long start, long end) {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Invalid extra-nonce range: [" + start + ", " + end + ")");
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Splits the range into disjoint parts of nearly equal size.
+     * @param parts the number of parts.
+     * @return the parts in ascending order.
+     */
+    public List<ExtraNonceRange> partition(int parts) {
+        List<ExtraNonceRange> ranges = new ArrayList<>(parts);
+        long size = (end - start) / parts;
+        for (int i = 0; i < parts; i++) {
+            long partStart = start + i * size;
+            ranges.add(new ExtraNonceRange(partStart, i == parts - 1 ? end : partStart + size));
+        }
+        return ranges;
+    }
+
+    /**
+     * Gets the first extra-nonce of the range.
+     * @return the inclusive start.
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Gets the end of the range.
+     * @return the exclusive end.
+     */
+    public long getEnd() {
+        return end;
+    }
+}
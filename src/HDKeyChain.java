@@ -0,0 +1,121 @@
+package src;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.bouncycastle.jce.ECNamedCurveTable;
+import org.bouncycastle.jce.spec.ECNamedCurveParameterSpec;
+import org.bouncycastle.jce.spec.ECPrivateKeySpec;
+import org.bouncycastle.jce.spec.ECPublicKeySpec;
+
+import utils.StringUtil;
+
+/**
+ * Derives wallet key pairs deterministically from a seed, so every key can be
+ * recovered from the seed alone. Children are hardened and derived from the master key.
+ */
+public class HDKeyChain {
+    private static final String CURVE = "prime192v1";
+    private static final byte[] MASTER_KEY = "Aevum seed".getBytes();
+    private static final int HARDENED_OFFSET = 0x80000000;
+    private static final ECNamedCurveParameterSpec CURVE_SPEC = ECNamedCurveTable.getParameterSpec(CURVE);
+
+    private final BigInteger masterKey;
+    private final byte[] chainCode;
+    private final Map<String, Integer> indexByPublicKey = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a key chain from a seed.
+     * @param seed the seed the keys are derived from.
+     */
+    public HDKeyChain(byte[] seed) {
+        byte[] I = hmacSha512(MASTER_KEY, seed);
+        this.masterKey = new BigInteger(1, Arrays.copyOfRange(I, 0, 32)).mod(CURVE_SPEC.getN());
+        this.chainCode = Arrays.copyOfRange(I, 32, 64);
+        if (masterKey.signum() == 0) {
+            throw new IllegalArgumentException("Seed produces an invalid master key");
+        }
+    }
+
+    /**
+     * Generates a new random seed.
+     * @return a 32-byte seed.
+     */
+    public static byte[] generateSeed() {
+        byte[] seed = new byte[32];
+        new SecureRandom().nextBytes(seed);
+        return seed;
+    }
+
+    /**
+     * Derives the key pair at the given index.
+     * @param index the child index.
+     * @return the derived key pair.
+     */
+    public KeyPair deriveKeyPair(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Child index must not be negative: " + index);
+        }
+        BigInteger n = CURVE_SPEC.getN();
+        byte[] data = ByteBuffer.allocate(1 + 32 + 4)
+                .put((byte) 0)
+                .put(toFixedBytes(masterKey, 32))
+                .putInt(index | HARDENED_OFFSET)
+                .array();
+        byte[] I = hmacSha512(chainCode, data);
+        BigInteger childKey = new BigInteger(1, Arrays.copyOfRange(I, 0, 32)).add(masterKey).mod(n);
+        if (childKey.signum() == 0) {
+            throw new IllegalStateException("Invalid child key at index " + index);
+        }
+
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("ECDSA", "BC");
+            KeyPair keyPair = new KeyPair(
+                    keyFactory.generatePublic(new ECPublicKeySpec(CURVE_SPEC.getG().multiply(childKey).normalize(), CURVE_SPEC)),
+                    keyFactory.generatePrivate(new ECPrivateKeySpec(childKey, CURVE_SPEC))
+            );
+            indexByPublicKey.put(StringUtil.getAddressString(keyPair.getPublic()), index);
+            return keyPair;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Looks up the index a public key was derived at. Only keys derived by this instance
+     * are known; persist {@link DerivedKey#getIndex()} or {@link Wallet#getKeyIndex()} to recover keys after a restart.
+     * @param publicKey the public key to look up.
+     * @return the child index, or -1 if the key has not been derived by this chain.
+     */
+    public int indexOf(PublicKey publicKey) {
+        return indexByPublicKey.getOrDefault(StringUtil.getAddressString(publicKey), -1);
+    }
+
+    private static byte[] hmacSha512(byte[] key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA512");
+            mac.init(new SecretKeySpec(key, "HmacSHA512"));
+            return mac.doFinal(data);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static byte[] toFixedBytes(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[length];
+        int copy = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copy, fixed, length - copy, copy);
+        return fixed;
+    }
+}
@@ -0,0 +1,146 @@
+package src;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import lib.TransOutput;
+import utils.StringUtil;
+
+/**
+ * Represents the unspent outputs of a blockchain keyed by ID, with every output also
+ * indexed by the address it is locked to so wallets never scan the whole set.
+ * Outputs can only be changed through {@link #put}, {@link #remove} and {@link #clear};
+ * the views are read-only.
+ * <p>
+ * Once journaling is started, the map also remembers the value every changed output had at
+ * the base point, so the set at that point can be viewed without keeping a second copy.
+ */
+public class IndexedUTXOMap extends AbstractMap<String, TransOutput> {
+    private static final SortedUTXOSet EMPTY = new SortedUTXOSet();
+
+    private final HashMap<String, TransOutput> byID = new HashMap<>();
+    private final HashMap<String, SortedUTXOSet> byAddress = new HashMap<>();
+    private HashMap<String, TransOutput> journal;
+
+    @Override
+    public TransOutput put(String ID, TransOutput UTXO) {
+        TransOutput previous = byID.put(ID, UTXO);
+        if (previous != null) {
+            unindex(previous);
+        }
+        byAddress.computeIfAbsent(StringUtil.toHex(UTXO.getAddress()), address -> new SortedUTXOSet()).add(UTXO);
+        record(ID, previous, UTXO);
+        return previous;
+    }
+
+    @Override
+    public TransOutput remove(Object ID) {
+        TransOutput removed = byID.remove(ID);
+        if (removed != null) {
+            unindex(removed);
+            record((String) ID, removed, null);
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        for (Entry<String, TransOutput> entry : byID.entrySet()) {
+            record(entry.getKey(), entry.getValue(), null);
+        }
+        byID.clear();
+        byAddress.clear();
+    }
+
+    @Override
+    public TransOutput get(Object ID) {
+        return byID.get(ID);
+    }
+
+    @Override
+    public boolean containsKey(Object ID) {
+        return byID.containsKey(ID);
+    }
+
+    @Override
+    public int size() {
+        return byID.size();
+    }
+
+    @Override
+    public Set<Entry<String, TransOutput>> entrySet() {
+        return Collections.unmodifiableMap(byID).entrySet();
+    }
+
+    /**
+     * Gets the unspent outputs locked to an address. The returned set must not be modified.
+     * @param address the address bytes.
+     * @return the address's outputs, sorted by value.
+     */
+    public SortedUTXOSet getByAddress(byte[] address) {
+        return byAddress.getOrDefault(StringUtil.toHex(address), EMPTY);
+    }
+
+    /**
+     * Starts remembering changes, taking the current outputs as the base point.
+     */
+    public void startJournal() {
+        journal = new HashMap<>();
+    }
+
+    /**
+     * Checks if changes since a base point are being remembered.
+     * @return true if journaling has been started, false otherwise.
+     */
+    public boolean isJournaling() {
+        return journal != null;
+    }
+
+    /**
+     * Views the outputs as they were at the base point, without copying them.
+     * The view is read-only and follows later changes to this map.
+     * @return the outputs at the base point.
+     */
+    public Map<String, TransOutput> getBase() {
+        return new UTXOOverlay(this, Collections.unmodifiableMap(journal));
+    }
+
+    /**
+     * Moves the base point for one output, such as when a block is folded into the base.
+     * @param ID       the ID of the output.
+     * @param baseUTXO the output at the new base point, or null if it is absent there.
+     */
+    public void rebase(String ID, TransOutput baseUTXO) {
+        if (Objects.equals(byID.get(ID), baseUTXO)) {
+            journal.remove(ID);
+        } else {
+            journal.put(ID, baseUTXO);
+        }
+    }
+
+    /**
+     * Remembers the base value of an output on its first change, and forgets it
+     * once the output is back to its base value.
+     */
+    private void record(String ID, TransOutput previous, TransOutput current) {
+        if (journal == null) return;
+        if (!journal.containsKey(ID)) {
+            journal.put(ID, previous);
+        } else if (Objects.equals(journal.get(ID), current)) {
+            journal.remove(ID);
+        }
+    }
+
+    private void unindex(TransOutput UTXO) {
+        String address = StringUtil.toHex(UTXO.getAddress());
+        SortedUTXOSet UTXOs = byAddress.get(address);
+        UTXOs.remove(UTXO.getID());
+        if (UTXOs.size() == 0) {
+            byAddress.remove(address);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package src;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pre-derives key pairs from an HD key chain on a background thread so that
+ * creating a wallet only has to take a ready key. Keys are handed out in index order.
+ */
+public class KeyPool {
+    private final HDKeyChain keyChain;
+    private final BlockingQueue<DerivedKey> keys;
+    private final Thread refiller;
+    private int nextIndex;
+
+    /**
+     * Constructs a key pool and starts deriving keys.
+     * @param keyChain the key chain the keys are derived from.
+     * @param capacity the number of keys kept ready.
+     * @param startIndex the first child index to derive.
+     */
+    public KeyPool(HDKeyChain keyChain, int capacity, int startIndex) {
+        this.keyChain = keyChain;
+        this.keys = new ArrayBlockingQueue<>(capacity);
+        this.nextIndex = startIndex;
+        this.refiller = Thread.ofPlatform().name("aevum-keypool").daemon().start(this::refill);
+    }
+
+    /**
+     * Takes the next key, waiting for one to be derived if the pool is empty.
+     * @return the next key with its child index.
+     */
+    public DerivedKey take() {
+        try {
+            return keys.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a key", e);
+        }
+    }
+
+    /**
+     * Creates a wallet with the next key, recording its child index in the wallet.
+     * @param chain the blockchain whose unspent outputs the wallet tracks.
+     * @return the new wallet.
+     */
+    public Wallet newWallet(AevumChain chain) {
+        DerivedKey key = take();
+        return new Wallet(chain, key.getKeyPair(), key.getIndex());
+    }
+
+    /**
+     * Gets the number of key pairs ready to be taken.
+     * @return the number of ready keys.
+     */
+    public int available() {
+        return keys.size();
+    }
+
+    /**
+     * Stops deriving keys.
+     */
+    public void close() {
+        refiller.interrupt();
+    }
+
+    private void refill() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                int index = nextIndex++;
+                keys.put(new DerivedKey(index, keyChain.deriveKeyPair(index)));
+            }
+        } catch (InterruptedException e) {
+            // Pool closed.
+        }
+    }
+}
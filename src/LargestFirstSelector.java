@@ -0,0 +1,31 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lib.TransOutput;
+
+/**
+ * Selects as few outputs as possible: the smallest single output that covers
+ * the value, otherwise the largest outputs until the value is covered.
+ */
+public class LargestFirstSelector implements CoinSelector {
+
+    @Override
+    public List<TransOutput> select(SortedUTXOSet UTXOs, float value) {
+        List<TransOutput> selected = new ArrayList<>();
+        TransOutput single = UTXOs.smallestAtLeast(value);
+        if (single != null) {
+            selected.add(single);
+            return selected;
+        }
+
+        float total = 0;
+        for (TransOutput UTXO : UTXOs.descending()) {
+            selected.add(UTXO);
+            total += UTXO.getValue();
+            if (total >= value) return selected;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,86 @@
+package src;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.Security;
+
+/**
+ * Command line wrapper around {@link ChainSnapshot}.
+ * <pre>
+ *   export &lt;directory&gt; [blockHash|tip] [chunkSize]
+ *   import &lt;directory&gt; &lt;commitment&gt; [pruneDepth]
+ * </pre>
+ * A node exports from its live chain through {@link #run(AevumChain, String...)}. Run from
+ * {@link #main}, there is no stored chain to read, so export first mines a demo chain.
+ */
+public class SnapshotCommand {
+    private static final int DEFAULT_CHUNK_SIZE = 10_000;
+    private static final int DEMO_BLOCKS = 20;
+
+    private SnapshotCommand() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Runs a snapshot command.
+     * @param args the command and its arguments.
+     */
+    public static void main(String[] args) {
+        Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
+        AevumChain chain = null;
+        if (args.length > 0 && "export".equals(args[0])) {
+            chain = createDemoChain(DEMO_BLOCKS);
+        }
+        System.exit(run(chain, args));
+    }
+
+    /**
+     * Runs a snapshot command against a chain.
+     * @param chain the chain to export from, unused by import.
+     * @param args  the command and its arguments.
+     * @return the exit status: 0 on success, 1 on failure, 2 on bad usage.
+     */
+    public static int run(AevumChain chain, String... args) {
+        try {
+            if (args.length >= 2 && "export".equals(args[0])) {
+                String blockHash = args.length > 2 && !"tip".equals(args[2]) ? args[2] : chain.getTip().getHash();
+                int chunkSize = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_CHUNK_SIZE;
+                String commitment = ChainSnapshot.export(chain, blockHash, Path.of(args[1]), chunkSize);
+                System.out.println("commitment " + commitment);
+                return 0;
+            }
+            if (args.length >= 3 && "import".equals(args[0])) {
+                int pruneDepth = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+                AevumChain loaded = ChainSnapshot.load(Path.of(args[1]), args[2], pruneDepth);
+                if (loaded == null) return 1;
+                System.out.println("tip " + loaded.getTip().getHash() + " height " + loaded.getHeight(0)
+                        + " utxos " + loaded.getUTXOs().size());
+                return 0;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("#Snapshot command failed: " + e.getMessage());
+            return 1;
+        }
+        System.out.println("Usage: export <directory> [blockHash|tip] [chunkSize]");
+        System.out.println("       import <directory> <commitment> [pruneDepth]");
+        return 2;
+    }
+
+    /**
+     * Mines a chain with one payment per block to export from.
+     * @param blocks the number of blocks after the genesis block.
+     * @return the demo chain.
+     */
+    private static AevumChain createDemoChain(int blocks) {
+        AevumChain chain = new AevumChain();
+        Wallet miner = new Wallet(chain);
+        Wallet recipient = new Wallet(chain);
+        chain.mintBlock(new Block("0"), miner);
+        for (int i = 0; i < blocks; i++) {
+            Block block = new Block(chain.getTip().getHash());
+            block.addTransaction(miner.sendFunds(recipient.getAddress(), 1f), chain.getUTXOs());
+            chain.mintBlock(block, miner);
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,164 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+import lib.TransOutput;
+
+/**
+ * Represents a wallet's unspent outputs, indexed by ID and kept sorted by value.
+ */
+public class SortedUTXOSet {
+    private static final double UNITS_PER_COIN = 100_000_000d;
+
+    private final HashMap<String, TransOutput> byID = new HashMap<>();
+    private final TreeMap<Float, LinkedHashMap<String, TransOutput>> byValue = new TreeMap<>();
+    private long totalUnits;
+
+    /**
+     * Adds an unspent output to the set.
+     * @param UTXO the unspent output to add.
+     */
+    public void add(TransOutput UTXO) {
+        if (byID.putIfAbsent(UTXO.getID(), UTXO) != null) return;
+        byValue.computeIfAbsent(UTXO.getValue(), value -> new LinkedHashMap<>()).put(UTXO.getID(), UTXO);
+        totalUnits += toUnits(UTXO.getValue());
+    }
+
+    /**
+     * Removes an unspent output from the set.
+     * @param ID the ID of the output to remove.
+     * @return the removed output, or null if it was not in the set.
+     */
+    public TransOutput remove(String ID) {
+        TransOutput UTXO = byID.remove(ID);
+        if (UTXO == null) return null;
+        LinkedHashMap<String, TransOutput> bucket = byValue.get(UTXO.getValue());
+        bucket.remove(ID);
+        if (bucket.isEmpty()) {
+            byValue.remove(UTXO.getValue());
+        }
+        totalUnits -= toUnits(UTXO.getValue());
+        return UTXO;
+    }
+
+    /**
+     * Checks if an unspent output is in the set.
+     * @param ID the ID of the output.
+     * @return true if the output is in the set, false otherwise.
+     */
+    public boolean contains(String ID) {
+        return byID.containsKey(ID);
+    }
+
+    /**
+     * Gets the smallest output whose value is at least the given value.
+     * @param value the minimum value.
+     * @return the smallest sufficient output, or null if there is none.
+     */
+    public TransOutput smallestAtLeast(float value) {
+        Map.Entry<Float, LinkedHashMap<String, TransOutput>> entry = byValue.ceilingEntry(value);
+        return entry == null ? null : entry.getValue().values().iterator().next();
+    }
+
+    /**
+     * Gets the outputs ordered from the largest to the smallest value. The outputs are
+     * walked lazily, so a caller that stops early only visits the outputs it consumed.
+     * The set must not change while the outputs are walked.
+     * @return the outputs in descending value order.
+     */
+    public Iterable<TransOutput> descending() {
+        return DescendingIterator::new;
+    }
+
+    /**
+     * Gets the outputs whose value is below the given threshold, smallest first.
+     * @param threshold the exclusive upper bound on the value.
+     * @param limit     the maximum number of outputs to return.
+     * @return the outputs below the threshold in ascending value order.
+     */
+    public List<TransOutput> below(float threshold, int limit) {
+        List<TransOutput> outputs = new ArrayList<>();
+        for (LinkedHashMap<String, TransOutput> bucket : byValue.headMap(threshold, false).values()) {
+            for (TransOutput UTXO : bucket.values()) {
+                if (outputs.size() == limit) return outputs;
+                outputs.add(UTXO);
+            }
+        }
+        return outputs;
+    }
+
+    /**
+     * Gets the number of outputs in the set.
+     * @return the output count.
+     */
+    public int size() {
+        return byID.size();
+    }
+
+    /**
+     * Gets the total value of the outputs in the set.
+     * @return the total value.
+     */
+    public float getTotal() {
+        return (float) (totalUnits / UNITS_PER_COIN);
+    }
+
+    /**
+     * Gets the total value of the outputs in the set in minor units.
+     * @return the total value in minor units.
+     */
+    public long getTotalUnits() {
+        return totalUnits;
+    }
+
+    /**
+     * Converts a value to whole minor units so the running total never drifts.
+     * @param value the value in coins.
+     * @return the value in minor units.
+     */
+    static long toUnits(float value) {
+        return Math.round(value * UNITS_PER_COIN);
+    }
+
+    /**
+     * Gets the largest difference in minor units between a total and a value that is
+     * only float rounding: one unit in the last place of the value.
+     * @param value the value in coins.
+     * @return the rounding precision in minor units, at least 1.
+     */
+    static long getPrecisionUnits(float value) {
+        return Math.max(1, toUnits(Math.ulp(value)));
+    }
+
+    /**
+     * Walks the value buckets from the largest value down, one output at a time.
+     */
+    private class DescendingIterator implements Iterator<TransOutput> {
+        private final Iterator<LinkedHashMap<String, TransOutput>> buckets = byValue.descendingMap().values().iterator();
+        private Iterator<TransOutput> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && buckets.hasNext()) {
+                current = buckets.next().values().iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public TransOutput next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package src;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job that periodically merges a wallet's small unspent outputs through a node.
+ */
+public class UTXOConsolidator {
+    private final AevumNode node;
+    private final Wallet wallet;
+    private final float dustThreshold;
+    private final int maxInputs;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a new consolidator.
+     * @param node          the node the consolidation transactions are submitted to.
+     * @param wallet        the wallet to consolidate.
+     * @param dustThreshold the value below which an output is merged.
+     * @param maxInputs     the maximum number of outputs merged in one transaction.
+     */
+    public UTXOConsolidator(AevumNode node, Wallet wallet, float dustThreshold, int maxInputs) {
+        this.node = node;
+        this.wallet = wallet;
+        this.dustThreshold = dustThreshold;
+        this.maxInputs = maxInputs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("aevum-consolidator").daemon().factory());
+    }
+
+    /**
+     * Starts consolidating at a fixed interval.
+     * @param periodMillis the interval between consolidation runs in milliseconds.
+     */
+    public void start(long periodMillis) {
+        scheduler.scheduleWithFixedDelay(this::runScheduled, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops consolidating.
+     */
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Runs a scheduled consolidation pass. Failures are logged rather than thrown,
+     * since a scheduled task that throws is cancelled for good.
+     */
+    private void runScheduled() {
+        try {
+            consolidate();
+        } catch (RuntimeException e) {
+            System.out.println("[!] Consolidation failed: " + e);
+        }
+    }
+
+    /**
+     * Runs a single consolidation pass.
+     * @return true if a consolidation transaction was accepted, false otherwise.
+     */
+    public boolean consolidate() {
+        return node.consolidateFunds(wallet, dustThreshold, maxInputs).join();
+    }
+}
@@ -0,0 +1,90 @@
+package src;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import lib.TransOutput;
+
+/**
+ * Represents a copy-on-write view of a set of unspent outputs. Reads fall through to the
+ * base unless the output was changed in the overlay; changes never reach the base, and
+ * only the changed outputs are stored. The base must not change while the overlay is in use.
+ */
+public class UTXOOverlay extends AbstractMap<String, TransOutput> {
+    private final Map<String, TransOutput> base;
+    private final Map<String, TransOutput> changes;
+
+    /**
+     * Constructs a new, writable overlay.
+     * @param base the unspent outputs to read through to.
+     */
+    public UTXOOverlay(Map<String, TransOutput> base) {
+        this(base, new HashMap<>());
+    }
+
+    /**
+     * Constructs an overlay from existing changes.
+     * @param base    the unspent outputs to read through to.
+     * @param changes the changed outputs by ID, where null marks an output absent from the overlay.
+     */
+    public UTXOOverlay(Map<String, TransOutput> base, Map<String, TransOutput> changes) {
+        this.base = base;
+        this.changes = changes;
+    }
+
+    @Override
+    public TransOutput get(Object ID) {
+        if (changes.containsKey(ID)) {
+            return changes.get(ID);
+        }
+        return base.get(ID);
+    }
+
+    @Override
+    public boolean containsKey(Object ID) {
+        return get(ID) != null;
+    }
+
+    @Override
+    public TransOutput put(String ID, TransOutput UTXO) {
+        TransOutput previous = get(ID);
+        changes.put(ID, UTXO);
+        return previous;
+    }
+
+    @Override
+    public TransOutput remove(Object ID) {
+        TransOutput previous = get(ID);
+        if (previous != null) {
+            if (base.containsKey(ID)) {
+                changes.put((String) ID, null);
+            } else {
+                changes.remove(ID);
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Builds a snapshot of the overlay's outputs. Iterating copies the whole view, so
+     * lookups should go through {@link #get} and {@link #containsKey}.
+     */
+    @Override
+    public Set<Entry<String, TransOutput>> entrySet() {
+        HashMap<String, TransOutput> snapshot = new HashMap<>();
+        for (Entry<String, TransOutput> entry : base.entrySet()) {
+            if (!changes.containsKey(entry.getKey())) {
+                snapshot.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Entry<String, TransOutput> entry : changes.entrySet()) {
+            if (entry.getValue() != null) {
+                snapshot.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return Collections.unmodifiableMap(snapshot).entrySet();
+    }
+}
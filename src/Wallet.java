@@ -2,113 +2,193 @@ package src;
 
 import java.security.*;
 import java.security.spec.ECGenParameterSpec;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.ArrayList;
 
 import lib.TransInput;
 import lib.TransOutput;
 import lib.Transaction;
+import utils.StringUtil;
 
 /**
  * Represents a wallet used for managing transactions.
  */
 public class Wallet {
+    private static final ThreadLocal<KeyPairGenerator> KEY_GENERATOR = ThreadLocal.withInitial(Wallet::createKeyPairGenerator);
+
     private PrivateKey privateKey;
     private PublicKey publicKey;
-    private HashMap<String, TransOutput> UTXOs;
+    private byte[] address;
+    private AevumChain chain;
+    private CoinSelector coinSelector;
+    private final int keyIndex;
 
     /**
      * Constructs a new wallet and generates a key pair.
+     * @param chain the blockchain whose unspent outputs the wallet tracks.
+     */
+    public Wallet(AevumChain chain) {
+        this(chain, generateKeyPair());
+    }
+
+    /**
+     * Constructs a wallet around an existing key pair, such as one derived by an {@link HDKeyChain}.
+     * @param chain   the blockchain whose unspent outputs the wallet tracks.
+     * @param keyPair the key pair of the wallet.
+     */
+    public Wallet(AevumChain chain, KeyPair keyPair) {
+        this(chain, keyPair, -1);
+    }
+
+    /**
+     * Constructs a wallet around a key pair derived by an {@link HDKeyChain} at the given child index.
+     * @param chain    the blockchain whose unspent outputs the wallet tracks.
+     * @param keyPair  the key pair of the wallet.
+     * @param keyIndex the child index of the key pair, or -1 if it was not derived.
+     */
+    public Wallet(AevumChain chain, KeyPair keyPair, int keyIndex) {
+        this.chain = chain;
+        this.keyIndex = keyIndex;
+        this.coinSelector = new LargestFirstSelector();
+        this.privateKey = keyPair.getPrivate();
+        this.publicKey = keyPair.getPublic();
+        this.address = StringUtil.getAddress(publicKey);
+    }
+
+    /**
+     * Generates a new random key pair, reusing the calling thread's generator.
+     * @return the generated key pair.
      */
-    public Wallet() {
-        this.UTXOs = new HashMap<>();
-        generateKeyPair();
+    private static KeyPair generateKeyPair() {
+        return KEY_GENERATOR.get().generateKeyPair();
     }
 
     /**
-     * Generates a new key pair for the wallet.
+     * Creates a key pair generator for the wallet's curve.
+     * @return the initialized key pair generator.
      */
-    private void generateKeyPair() {
+    private static KeyPairGenerator createKeyPairGenerator() {
         try {
             KeyPairGenerator keyGen = KeyPairGenerator.getInstance("ECDSA", "BC");
             SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
             ECGenParameterSpec ecSpec = new ECGenParameterSpec("prime192v1");
 
             keyGen.initialize(ecSpec, random);
-            KeyPair keyPair = keyGen.generateKeyPair();
-            this.privateKey = keyPair.getPrivate();
-            this.publicKey = keyPair.getPublic();
-
+            return keyGen;
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Gets the balance of the wallet by calculating the total value of unspent outputs.
+     * Gets the balance of the wallet from the chain's index of its unspent outputs.
      * @return the balance of the wallet.
      */
     public float getBalance() {
-        float total = 0;
-        for (Map.Entry<String, TransOutput> item : AevumChain.UTXOs.entrySet()) {
-            TransOutput UTXO = item.getValue();
-            if (UTXO.isMine(publicKey)) {
-                UTXOs.put(UTXO.getID(), UTXO);
-                total += UTXO.getValue();
-            }
-        }
-        return total;
+        return getUTXOs().getTotal();
+    }
+
+    /**
+     * Gets the wallet's unspent outputs as tracked by the chain.
+     * @return the wallet's outputs, sorted by value.
+     */
+    private SortedUTXOSet getUTXOs() {
+        return chain.getUTXOs().getByAddress(address);
     }
 
     /**
-     * Sends funds from this wallet to a recipient.
-     * @param recipient the public key of the recipient.
+     * Sends funds from this wallet to a recipient. When the selected outputs match the value
+     * up to float rounding, the value is set to their exact total so no dust change is created.
+     * @param recipient the address of the recipient.
      * @param value     the amount of funds to send.
      * @return the transaction if successful, null otherwise.
      */
-    public Transaction sendFunds(PublicKey recipient, float value) {
-        if (getBalance() < value) {
+    public Transaction sendFunds(byte[] recipient, float value) {
+        SortedUTXOSet UTXOs = getUTXOs();
+        if (UTXOs.getTotal() < value) {
             System.out.println("[!] Not enough funds to send transaction. Transaction Discarded.");
             return null;
         }
 
-        List<TransInput> inputs = gatherInputs(value);
-
-        Transaction newTransaction = new Transaction(publicKey, recipient, value, inputs);
-        newTransaction.generateSignature(privateKey);
+        List<TransOutput> selected = coinSelector.select(UTXOs, value);
+        if (selected == null) {
+            System.out.println("[!] Not enough funds to send transaction. Transaction Discarded.");
+            return null;
+        }
 
-        removeUsedUTXOs(inputs);
+        if (isRoundingOf(selected, value)) {
+            value = getTotal(selected);
+        }
+        return createTransaction(recipient, value, selected);
+    }
 
-        return newTransaction;
+    /**
+     * Merges the wallet's smallest unspent outputs into a single output sent back to itself.
+     * @param dustThreshold the value below which an output is merged.
+     * @param maxInputs     the maximum number of outputs merged in one transaction.
+     * @return the consolidation transaction, or null if fewer than two outputs qualify.
+     */
+    public Transaction consolidateFunds(float dustThreshold, int maxInputs) {
+        List<TransOutput> selected = getUTXOs().below(dustThreshold, maxInputs);
+        if (selected.size() < 2) {
+            return null;
+        }
+        return createTransaction(address, getTotal(selected), selected);
     }
 
     /**
-     * Gathers unspent outputs as inputs for a transaction.
-     * @param value the amount of funds to send.
-     * @return the list of transaction inputs.
+     * Sums the values of outputs in the order a transaction sums its inputs,
+     * so spending exactly this total leaves no change.
+     * @param selected the outputs to sum.
+     * @return the total value.
      */
-    private List<TransInput> gatherInputs(float value) {
-        List<TransInput> inputs = new ArrayList<>();
+    private static float getTotal(List<TransOutput> selected) {
         float total = 0;
-        for (Map.Entry<String, TransOutput> item : UTXOs.entrySet()) {
-            TransOutput UTXO = item.getValue();
+        for (TransOutput UTXO : selected) {
             total += UTXO.getValue();
-            inputs.add(new TransInput(UTXO.getID()));
-            if (total > value) break;
         }
-        return inputs;
+        return total;
     }
 
     /**
-     * Removes used unspent outputs from the wallet.
-     * @param inputs the list of transaction inputs.
+     * Checks if the total of the outputs differs from the value only by float rounding.
+     * @param selected the outputs to sum.
+     * @param value    the value to compare with.
+     * @return true if the outputs match the value, false otherwise.
      */
-    private void removeUsedUTXOs(List<TransInput> inputs) {
-        for (TransInput input : inputs) {
-            UTXOs.remove(input.getTransOutputID());
+    private static boolean isRoundingOf(List<TransOutput> selected, float value) {
+        long units = 0;
+        for (TransOutput UTXO : selected) {
+            units += SortedUTXOSet.toUnits(UTXO.getValue());
         }
+        return Math.abs(units - SortedUTXOSet.toUnits(value)) <= SortedUTXOSet.getPrecisionUnits(value);
+    }
+
+    /**
+     * Creates and signs a transaction spending the selected unspent outputs.
+     * @param recipient the address of the recipient.
+     * @param value     the amount of funds to send.
+     * @param selected  the unspent outputs to spend.
+     * @return the signed transaction.
+     */
+    private Transaction createTransaction(byte[] recipient, float value, List<TransOutput> selected) {
+        List<TransInput> inputs = new ArrayList<>();
+        for (TransOutput UTXO : selected) {
+            inputs.add(new TransInput(UTXO.getID()));
+        }
+
+        Transaction newTransaction = new Transaction(publicKey, recipient, value, inputs);
+        newTransaction.generateSignature(privateKey);
+
+        return newTransaction;
+    }
+
+    /**
+     * Sets the strategy used to choose which unspent outputs fund a transaction.
+     * @param coinSelector the coin selection strategy.
+     */
+    public void setCoinSelector(CoinSelector coinSelector) {
+        this.coinSelector = coinSelector;
     }
 
     /**
@@ -126,4 +206,20 @@ public class Wallet {
     public PublicKey getPublicKey() {
         return publicKey;
     }
+
+    /**
+     * Gets the child index the wallet's key was derived at, which recovers the key from the seed.
+     * @return the child index, or -1 if the key was not derived.
+     */
+    public int getKeyIndex() {
+        return keyIndex;
+    }
+
+    /**
+     * Gets the address the wallet's outputs are locked to.
+     * @return the address bytes.
+     */
+    public byte[] getAddress() {
+        return address;
+    }
 }
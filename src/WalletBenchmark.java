@@ -0,0 +1,81 @@
+package src;
+
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.security.spec.ECGenParameterSpec;
+
+/**
+ * Measures the per-wallet cost of key generation, HD derivation, key pool hand-out and
+ * key index lookups. Each measurement is run twice and the second, warm run is the one to quote.
+ */
+public class WalletBenchmark {
+
+    private WalletBenchmark() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args the number of wallets per measurement, 2000 by default.
+     * @throws Exception if a key cannot be generated.
+     */
+    public static void main(String[] args) throws Exception {
+        Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        AevumChain chain = new AevumChain();
+        byte[] seed = HDKeyChain.generateSeed();
+        HDKeyChain keyChain = new HDKeyChain(seed);
+        Wallet lookupWallet = new Wallet(chain, keyChain.deriveKeyPair(0), 0);
+
+        for (int run = 1; run <= 2; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                KeyPairGenerator keyGen = KeyPairGenerator.getInstance("ECDSA", "BC");
+                keyGen.initialize(new ECGenParameterSpec("prime192v1"), SecureRandom.getInstance("SHA1PRNG"));
+                keyGen.generateKeyPair();
+            }
+            long baseline = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                new Wallet(chain);
+            }
+            long cachedGenerator = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                keyChain.deriveKeyPair(i);
+            }
+            long derivation = System.nanoTime() - start;
+
+            KeyPool pool = new KeyPool(new HDKeyChain(seed), count, 0);
+            while (pool.available() < count) {
+                Thread.sleep(10);
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                pool.newWallet(chain);
+            }
+            long pooled = System.nanoTime() - start;
+            pool.close();
+
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                keyChain.indexOf(lookupWallet.getPublicKey());
+            }
+            long lookup = System.nanoTime() - start;
+
+            System.out.println("Run " + run + ", " + count + " wallets, microseconds per wallet:");
+            print("new generator per wallet", baseline, count);
+            print("cached per-thread generator", cachedGenerator, count);
+            print("HD derivation", derivation, count);
+            print("wallet from a warm key pool", pooled, count);
+            print("public key -> index lookup", lookup, count);
+        }
+    }
+
+    private static void print(String label, long nanos, int count) {
+        System.out.printf("  %-30s %10.2f%n", label, nanos / 1_000.0 / count);
+    }
+}
@@ -0,0 +1,260 @@
+package src;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Distributes block header work from a node to external miner processes over TCP.
+ * <p>
+ * The protocol is line based. A worker sends {@code GET} and receives either {@code IDLE}
+ * or {@code JOB <jobId> <previousHash> <merkleRoot> <timeStamp> <nonceStart> <nonceEnd> <shareDifficulty>}.
+ * It then sends {@code SUBMIT <jobId> <nonce>} for every nonce in the range whose header hash
+ * meets the share difficulty, and receives {@code ACCEPTED}, {@code BLOCK} or {@code REJECTED <reason>}.
+ * Shares for nonces that were never handed out for the job are rejected as out of range.
+ * Jobs are rotated when the node's template changes or a job's nonces run out, each new job for the
+ * same template carrying the next coinbase extra-nonce; shares for older templates are rejected as stale.
+ */
+public class WorkServer {
+    private final AevumNode node;
+    private final int shareDifficulty;
+    private final int nonceRangeSize;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<Long, Job> jobs = new HashMap<>();
+    private Job currentJob;
+    private long nextJobID;
+    private long nextExtraNonce;
+    private long jobsVersion = -1;
+
+    private final AtomicInteger acceptedShares = new AtomicInteger();
+    private final AtomicInteger rejectedShares = new AtomicInteger();
+    private final AtomicInteger blocksFound = new AtomicInteger();
+
+    /**
+     * Constructs a new work server bound to a local port.
+     * @param node            the node whose block template is mined.
+     * @param port            the port to listen on, or 0 for any free port.
+     * @param shareDifficulty the number of leading zeros a share needs, at most {@link AevumChain#DIFFICULTY}.
+     * @param nonceRangeSize  the number of nonces handed out per job request.
+     * @throws IOException if the port cannot be bound.
+     */
+    public WorkServer(AevumNode node, int port, int shareDifficulty, int nonceRangeSize) throws IOException {
+        if (shareDifficulty > AevumChain.DIFFICULTY) {
+            throw new IllegalArgumentException("Share difficulty must not exceed the block difficulty");
+        }
+        this.node = node;
+        this.shareDifficulty = shareDifficulty;
+        this.nonceRangeSize = nonceRangeSize;
+        this.serverSocket = new ServerSocket(port);
+    }
+
+    /**
+     * Starts accepting worker connections.
+     */
+    public void start() {
+        connectionExecutor.execute(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connectionExecutor.execute(() -> handle(socket));
+                } catch (IOException e) {
+                    // Server socket closed.
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops accepting work and closes all connections.
+     */
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        connectionExecutor.shutdownNow();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     * @return the local port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the number of accepted shares.
+     * @return the accepted share count.
+     */
+    public int getAcceptedShares() {
+        return acceptedShares.get();
+    }
+
+    /**
+     * Gets the number of rejected shares.
+     * @return the rejected share count.
+     */
+    public int getRejectedShares() {
+        return rejectedShares.get();
+    }
+
+    /**
+     * Gets the number of blocks found by workers.
+     * @return the block count.
+     */
+    public int getBlocksFound() {
+        return blocksFound.get();
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.trim().split(" ");
+                if ("GET".equals(parts[0])) {
+                    out.println(nextWork());
+                } else if ("SUBMIT".equals(parts[0]) && parts.length == 3) {
+                    out.println(submitShare(Long.parseLong(parts[1]), Integer.parseInt(parts[2])));
+                } else {
+                    out.println("REJECTED malformed");
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Worker disconnected or sent garbage; drop the connection.
+        }
+    }
+
+    /**
+     * Hands out the next nonce range, rotating the job if the template changed or its nonces ran out.
+     * @return the job line, or IDLE if there is nothing to mine.
+     */
+    private synchronized String nextWork() {
+        if (currentJob == null || currentJob.template.getVersion() != node.getTemplateVersion()
+                || currentJob.nextNonce > Integer.MAX_VALUE - nonceRangeSize) {
+            rotate();
+        }
+        if (currentJob == null) {
+            return "IDLE";
+        }
+
+        int start = currentJob.nextNonce;
+        int end = start + nonceRangeSize;
+        currentJob.nextNonce = end;
+        Block block = currentJob.template.getBlock();
+        return "JOB " + currentJob.ID + " " + block.getPreviousHash() + " " + block.merkleRoot + " "
+                + currentJob.timeStamp + " " + start + " " + end + " " + shareDifficulty;
+    }
+
+    /**
+     * Replaces the current job with one built from the node's latest template. A job for the
+     * same template gets the next extra-nonce, giving it a fresh Merkle root and nonce space.
+     * Jobs from older templates are forgotten so their shares are rejected as stale.
+     */
+    private void rotate() {
+        BlockTemplate template = node.getBlockTemplate();
+        if (template.getVersion() != jobsVersion) {
+            jobs.clear();
+            nextExtraNonce = 0;
+            jobsVersion = template.getVersion();
+        }
+        if (!template.hasTransactions()) {
+            currentJob = null;
+            return;
+        }
+
+        Block block = template.getBlock();
+        if (block.getCoinbase() != null) {
+            block.setExtraNonce(nextExtraNonce++);
+        }
+        long timeStamp = System.currentTimeMillis();
+        if (currentJob != null && currentJob.timeStamp >= timeStamp) {
+            timeStamp = currentJob.timeStamp + 1;
+        }
+        currentJob = new Job(nextJobID++, template, timeStamp);
+        jobs.put(currentJob.ID, currentJob);
+    }
+
+    /**
+     * Validates a share with a single header hash and connects the block if it meets the block difficulty.
+     * @param jobID the job the share was found for.
+     * @param nonce the nonce of the share.
+     * @return the response line.
+     */
+    private String submitShare(long jobID, int nonce) {
+        Job job;
+        synchronized (this) {
+            job = jobs.get(jobID);
+            if (job == null) {
+                rejectedShares.incrementAndGet();
+                return "REJECTED stale";
+            }
+            if (nonce < 0 || nonce >= job.nextNonce) {
+                rejectedShares.incrementAndGet();
+                return "REJECTED out-of-range";
+            }
+            if (!job.submittedNonces.add(nonce)) {
+                rejectedShares.incrementAndGet();
+                return "REJECTED duplicate";
+            }
+        }
+
+        Block template = job.template.getBlock();
+        String hash = Block.calculateHash(template.getPreviousHash(), job.timeStamp, nonce, template.merkleRoot);
+        if (!Block.meetsDifficulty(hash, shareDifficulty)) {
+            rejectedShares.incrementAndGet();
+            return "REJECTED low-difficulty";
+        }
+        if (!Block.meetsDifficulty(hash, AevumChain.DIFFICULTY)) {
+            acceptedShares.incrementAndGet();
+            return "ACCEPTED";
+        }
+
+        Block block = new Block(template.getPreviousHash());
+        block.getTransactions().addAll(template.getTransactions());
+        block.merkleRoot = template.merkleRoot;
+        block.timeStamp = job.timeStamp;
+        block.nonce = nonce;
+        block.hash = hash;
+        if (!node.submitMinedBlock(block, job.template.getVersion())) {
+            rejectedShares.incrementAndGet();
+            return "REJECTED stale";
+        }
+        acceptedShares.incrementAndGet();
+        blocksFound.incrementAndGet();
+        System.out.println("[+] Block mined by worker: " + hash);
+        return "BLOCK";
+    }
+
+    /**
+     * Represents a header template with a fixed timestamp and the nonces already handed out for it.
+     */
+    private static class Job {
+        private final long ID;
+        private final BlockTemplate template;
+        private final long timeStamp;
+        private final Set<Integer> submittedNonces = new HashSet<>();
+        private int nextNonce;
+
+        private Job(long ID, BlockTemplate template, long timeStamp) {
+            this.ID = ID;
+            this.template = template;
+            this.timeStamp = timeStamp;
+        }
+    }
+}
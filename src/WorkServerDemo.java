@@ -0,0 +1,85 @@
+package src;
+
+import java.io.IOException;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runnable check for the work server: starts a node without miners, serves its template
+ * to local {@link WorkerClient} processes and confirms that they mine valid blocks.
+ * Exits with status 1 if a block is not found in time or the chain is invalid.
+ */
+public class WorkServerDemo {
+    private static final long BLOCK_TIMEOUT_MILLIS = 120_000;
+
+    private WorkServerDemo() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Runs the check.
+     * @param args the number of worker processes, 2 by default, and blocks to mine, 3 by default.
+     * @throws IOException if the server cannot be started or a worker cannot be spawned.
+     * @throws InterruptedException if interrupted while waiting for a block.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Security.addProvider(new org.bouncycastle.jce.provider.BouncyCastleProvider());
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int blocks = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        AevumChain chain = new AevumChain();
+        Wallet miner = new Wallet(chain);
+        Wallet recipient = new Wallet(chain);
+        chain.mintBlock(new Block("0"), miner);
+        AevumNode node = new AevumNode(chain, miner, 2);
+        WorkServer server = new WorkServer(node, 0, 2, 10_000);
+        server.start();
+
+        String java = ProcessHandle.current().info().command().orElse("java");
+        List<Process> processes = new ArrayList<>();
+        boolean passed = true;
+        try {
+            for (int i = 0; i < workers; i++) {
+                processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        WorkerClient.class.getName(), "localhost", Integer.toString(server.getPort()))
+                        .inheritIO().start());
+            }
+
+            for (int i = 0; i < blocks && passed; i++) {
+                int height = node.getHeight();
+                if (!node.sendFunds(miner, recipient.getAddress(), 1f).join()) {
+                    System.out.println("#Transaction was not accepted");
+                    passed = false;
+                    break;
+                }
+                long deadline = System.currentTimeMillis() + BLOCK_TIMEOUT_MILLIS;
+                while (node.getHeight() == height && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                if (node.getHeight() == height) {
+                    System.out.println("#Workers found no block in time");
+                    passed = false;
+                }
+            }
+
+            boolean valid = node.isChainValid().join();
+            float balance = node.getBalance(recipient).join();
+            System.out.println("[+] Workers: " + workers + ", blocks found: " + server.getBlocksFound()
+                    + ", shares accepted: " + server.getAcceptedShares() + ", rejected: " + server.getRejectedShares());
+            System.out.println("[+] Height: " + node.getHeight() + ", recipient balance: " + balance + ", chain valid: " + valid);
+            passed = passed && valid && server.getBlocksFound() == blocks && balance == blocks;
+        } finally {
+            server.close();
+            for (Process process : processes) {
+                process.destroy();
+            }
+            node.shutdown();
+        }
+
+        System.out.println(passed ? "[+] Work server check passed" : "[!] Work server check failed");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+}
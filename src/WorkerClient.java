@@ -0,0 +1,95 @@
+package src;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+
+/**
+ * External miner process that requests nonce ranges from a {@link WorkServer} and submits shares.
+ */
+public class WorkerClient {
+    private static final long IDLE_WAIT_MILLIS = 100;
+
+    private final String host;
+    private final int port;
+
+    /**
+     * Constructs a new worker.
+     * @param host the work server host.
+     * @param port the work server port.
+     */
+    public WorkerClient(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Runs a worker process.
+     * @param args the work server host and port.
+     */
+    public static void main(String[] args) {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 3333;
+        try {
+            new WorkerClient(host, port).run();
+        } catch (IOException e) {
+            System.out.println("[!] Work server connection closed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Requests and searches nonce ranges until the server closes the connection.
+     * @throws IOException if the connection fails.
+     */
+    public void run() throws IOException {
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+            while (!Thread.currentThread().isInterrupted()) {
+                out.println("GET");
+                String line = in.readLine();
+                if (line == null) return;
+
+                String[] job = line.split(" ");
+                if (!"JOB".equals(job[0])) {
+                    sleep(IDLE_WAIT_MILLIS);
+                    continue;
+                }
+                search(job, in, out);
+            }
+        }
+    }
+
+    /**
+     * Hashes every nonce in a job's range and submits those meeting the share difficulty.
+     */
+    private void search(String[] job, BufferedReader in, PrintWriter out) throws IOException {
+        String jobID = job[1];
+        String previousHash = job[2];
+        String merkleRoot = job[3];
+        long timeStamp = Long.parseLong(job[4]);
+        int nonceStart = Integer.parseInt(job[5]);
+        int nonceEnd = Integer.parseInt(job[6]);
+        int shareDifficulty = Integer.parseInt(job[7]);
+
+        for (int nonce = nonceStart; nonce < nonceEnd; nonce++) {
+            String hash = Block.calculateHash(previousHash, timeStamp, nonce, merkleRoot);
+            if (Block.meetsDifficulty(hash, shareDifficulty)) {
+                out.println("SUBMIT " + jobID + " " + nonce);
+                String response = in.readLine();
+                if (response == null) throw new IOException("Work server closed the connection");
+                if ("BLOCK".equals(response) || "REJECTED stale".equals(response)) return;
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a Merkle tree whose layers are kept so a single leaf can be
+ * replaced by rehashing only the path from that leaf to the root.
+ * An odd last node of a layer is paired with itself, so every leaf is committed to the root.
+ */
+public class MerkleTree {
+    private final List<List<String>> layers = new ArrayList<>();
+
+    /**
+     * Constructs a Merkle tree over the given leaves.
+     * @param leaves the leaf hashes.
+     */
+    public MerkleTree(List<String> leaves) {
+        List<String> layer = new ArrayList<>(leaves);
+        layers.add(layer);
+        while (layer.size() > 1) {
+            List<String> parentLayer = new ArrayList<>();
+            for (int i = 0; i < layer.size(); i += 2) {
+                String right = i + 1 < layer.size() ? layer.get(i + 1) : layer.get(i);
+                parentLayer.add(StringUtil.applySha256(layer.get(i) + right));
+            }
+            layers.add(parentLayer);
+            layer = parentLayer;
+        }
+    }
+
+    /**
+     * Gets the Merkle root.
+     * @return the root hash, or an empty string if the tree has no leaves.
+     */
+    public String getRoot() {
+        List<String> top = layers.get(layers.size() - 1);
+        return top.isEmpty() ? "" : top.get(0);
+    }
+
+    /**
+     * Replaces a leaf and rehashes its path to the root.
+     * @param index the index of the leaf.
+     * @param leaf  the new leaf hash.
+     * @return the new Merkle root.
+     */
+    public String updateLeaf(int index, String leaf) {
+        layers.get(0).set(index, leaf);
+        for (int level = 0; level < layers.size() - 1; level++) {
+            List<String> layer = layers.get(level);
+            int sibling = Math.min(index ^ 1, layer.size() - 1);
+            String combined = (index & 1) == 0
+                    ? layer.get(index) + layer.get(sibling)
+                    : layer.get(sibling) + layer.get(index);
+            index >>= 1;
+            layers.get(level + 1).set(index, StringUtil.applySha256(combined));
+        }
+        return getRoot();
+    }
+}
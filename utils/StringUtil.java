@@ -4,6 +4,11 @@ import java.security.*;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bouncycastle.crypto.digests.RIPEMD160Digest;
+import org.bouncycastle.jce.interfaces.ECPublicKey;
 
 import lib.Transaction;
 
@@ -11,6 +16,8 @@ import lib.Transaction;
  * Utility class for string operations and cryptographic functions.
  */
 public class StringUtil {
+    private static final int ADDRESS_CACHE_SIZE = 4096;
+    private static final Map<PublicKey, byte[]> ADDRESS_CACHE = new ConcurrentHashMap<>();
 
     private StringUtil() {
         throw new IllegalStateException("Utility class");
@@ -25,20 +32,42 @@ public class StringUtil {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hash = digest.digest(input.getBytes("UTF-8"));
-            StringBuilder hexBuffer = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexBuffer.append('0');
-                }
-                hexBuffer.append(hex);
-            }
-            return hexBuffer.toString();
+            return toHex(hash);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Converts bytes to a lowercase hexadecimal string.
+     * @param bytes the bytes to convert.
+     * @return the hexadecimal string.
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder hexBuffer = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) {
+                hexBuffer.append('0');
+            }
+            hexBuffer.append(hex);
+        }
+        return hexBuffer.toString();
+    }
+
+    /**
+     * Converts a hexadecimal string to bytes.
+     * @param hex the hexadecimal string.
+     * @return the decoded bytes.
+     */
+    public static byte[] fromHex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+
     /**
      * Applies ECDSA signature to the input string using the private key.
      * @param privateKey the private key.
@@ -83,28 +112,66 @@ public class StringUtil {
         return Base64.getEncoder().encodeToString(key.getEncoded());
     }
 
+    /**
+     * Gets the compressed encoding of an elliptic curve public key.
+     * @param publicKey the public key.
+     * @return the compressed point encoding.
+     */
+    public static byte[] getCompressedKey(PublicKey publicKey) {
+        return ((ECPublicKey) publicKey).getQ().getEncoded(true);
+    }
+
+    /**
+     * Gets the 20-byte address of a public key: RIPEMD-160 of SHA-256 of the compressed key.
+     * Addresses are cached per key in a lock-free map that is emptied when full, so validator
+     * threads never wait on each other; the returned array must not be modified.
+     * @param publicKey the public key.
+     * @return the address bytes.
+     */
+    public static byte[] getAddress(PublicKey publicKey) {
+        byte[] address = ADDRESS_CACHE.get(publicKey);
+        if (address == null) {
+            address = hash160(getCompressedKey(publicKey));
+            if (ADDRESS_CACHE.size() >= ADDRESS_CACHE_SIZE) {
+                ADDRESS_CACHE.clear();
+            }
+            ADDRESS_CACHE.put(publicKey, address);
+        }
+        return address;
+    }
+
+    /**
+     * Gets the hexadecimal address of a public key.
+     * @param publicKey the public key.
+     * @return the address as a hexadecimal string.
+     */
+    public static String getAddressString(PublicKey publicKey) {
+        return toHex(getAddress(publicKey));
+    }
+
+    private static byte[] hash160(byte[] input) {
+        try {
+            byte[] sha = MessageDigest.getInstance("SHA-256").digest(input);
+            RIPEMD160Digest ripemd = new RIPEMD160Digest();
+            ripemd.update(sha, 0, sha.length);
+            byte[] hash = new byte[ripemd.getDigestSize()];
+            ripemd.doFinal(hash, 0);
+            return hash;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Calculates the Merkle root of a list of transactions.
      * @param transactions the list of transactions.
      * @return the Merkle root.
      */
     public static String getMerkleRoot(List<Transaction> transactions) {
-        int count = transactions.size();
-        List<String> previousTreeLayer = new ArrayList<>();
+        List<String> leaves = new ArrayList<>();
         for (Transaction transaction : transactions) {
-            previousTreeLayer.add(transaction.getTransactionID());
+            leaves.add(transaction.getTransactionID());
         }
-
-        while (count > 1) {
-            List<String> treeLayer = new ArrayList<>();
-            for (int i = 1; i < previousTreeLayer.size(); i += 2) {
-                String combinedHash = applySha256(previousTreeLayer.get(i - 1) + previousTreeLayer.get(i));
-                treeLayer.add(combinedHash);
-            }
-            count = treeLayer.size();
-            previousTreeLayer = treeLayer;
-        }
-
-        return previousTreeLayer.isEmpty() ? "" : previousTreeLayer.get(0);
+        return new MerkleTree(leaves).getRoot();
     }
 }